@@ -0,0 +1,134 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Antialiases fractal by supersampling only pixels on basin boundaries. Frame is first calculated at base
+ * resolution, then every pixel whose 8 neighbours do not all have its root index is sampled on k x k grid
+ * inside the pixel. Cost of antialiasing grows with length of boundaries instead of area of frame.
+ * @author gorsicleo
+ *
+ */
+public class AdaptiveSupersampler {
+
+	private static final int ITERATIONS = 16 * 16 * 16;
+	/**Number of boundary pixels sampled by one task*/
+	private static final int PIXELS_PER_TASK = 256;
+
+	private ComplexRootedPolynomial rootedPoly;
+	private INewtonKernel kernel;
+	private int samplesPerAxis;
+	private ExecutorService executor;
+
+	/**Creates new supersampler
+	 * @param rootedPoly user entered polynomial
+	 * @param kernel iteration for expanded polynomial
+	 * @param samplesPerAxis k, boundary pixel is sampled k x k times
+	 * @param executor runs sampling tasks, null to sample on calling thread
+	 */
+	public AdaptiveSupersampler(ComplexRootedPolynomial rootedPoly, INewtonKernel kernel, int samplesPerAxis,
+			ExecutorService executor) {
+		if (samplesPerAxis < 1) {
+			throw new IllegalArgumentException("Number of samples per axis must be positive.");
+		}
+		this.rootedPoly = rootedPoly;
+		this.kernel = kernel;
+		this.samplesPerAxis = samplesPerAxis;
+		this.executor = executor;
+	}
+
+	/**Calculates frame at base resolution and antialiases it
+	 * @return antialiased frame, or null if calculation was cancelled
+	 */
+	public CoverageFrame render(Viewport viewport, int width, int height, AtomicBoolean cancel) {
+		short[] data = new short[width * height];
+		NewtonParallel.calculate(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(), viewport.getImMax(),
+				width, height, ITERATIONS, 0, height - 1, data, cancel, rootedPoly, kernel, null);
+		if (cancel.get())
+			return null;
+		return supersample(viewport, data, width, height, (short) (rootedPoly.getRoots().length + 1));
+	}
+
+	/**Antialiases frame that was already calculated at base resolution. Data is copied.
+	 * @param viewport of frame
+	 * @param data root index + 1 of each pixel
+	 * @param width of frame
+	 * @param height of frame
+	 * @param order number of roots + 1
+	 * @return antialiased frame
+	 */
+	public CoverageFrame supersample(Viewport viewport, short[] data, int width, int height, short order) {
+		short[] base = data.clone();
+		int[] boundary = findBoundary(base, width, height);
+		float[] coverage = new float[boundary.length * order];
+
+		if (executor == null) {
+			sample(viewport, width, height, order, boundary, 0, boundary.length, coverage);
+		} else {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int start = 0; start < boundary.length; start += PIXELS_PER_TASK) {
+				int from = start;
+				int to = Math.min(boundary.length, start + PIXELS_PER_TASK);
+				tasks.add(executor.submit(() -> sample(viewport, width, height, order, boundary, from, to, coverage)));
+			}
+			for (Future<?> task : tasks) {
+				NewtonParallel.waitFor(task, "Supersampling failed.");
+			}
+		}
+		return new CoverageFrame(width, height, order, base, boundary, coverage);
+	}
+
+	/**Returns offsets of pixels that have at least one of 8 neighbours with different index*/
+	static int[] findBoundary(short[] data, int width, int height) {
+		int[] boundary = new int[data.length];
+		int count = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				short index = data[y * width + x];
+				search: for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+					for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+						if (data[ny * width + nx] != index) {
+							boundary[count++] = y * width + x;
+							break search;
+						}
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(boundary, count);
+	}
+
+	/**Samples boundary pixels from <code>from</code> to <code>to</code> - 1 and stores their coverage*/
+	private void sample(Viewport viewport, int width, int height, short order, int[] boundary, int from, int to,
+			float[] coverage) {
+		double reStep = (viewport.getReMax() - viewport.getReMin()) / (width - 1.0);
+		double imStep = (viewport.getImMax() - viewport.getImMin()) / (height - 1.0);
+		float weight = 1f / (samplesPerAxis * samplesPerAxis);
+		double[] z = new double[2];
+
+		for (int i = from; i < to; i++) {
+			int x = boundary[i] % width;
+			int y = boundary[i] / width;
+			for (int sy = 0; sy < samplesPerAxis; sy++) {
+				double im = viewport.getImMin() + (height - 1.0 - y - subpixel(sy)) * imStep;
+				for (int sx = 0; sx < samplesPerAxis; sx++) {
+					double re = viewport.getReMin() + (x + subpixel(sx)) * reStep;
+					kernel.iterate(re, im, ITERATIONS, z);
+					int index = rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD) + 1;
+					coverage[i * order + index] += weight;
+				}
+			}
+		}
+	}
+
+	/**Returns offset of sample from pixel center, samples are centered in k x k cells of pixel*/
+	private double subpixel(int sample) {
+		return (sample + 0.5) / samplesPerAxis - 0.5;
+	}
+}
@@ -0,0 +1,38 @@
+package hr.fer.zemris.java.fractals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**Measures how many bytes all live threads have allocated on heap, so allocation rate of a frame can be
+ * reported as difference of two measurements. Works only on JVMs that support per-thread allocation counting,
+ * threads that died between measurements are not counted.
+ * @author gorsicleo
+ *
+ */
+public class AllocationMeter {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private AllocationMeter() {
+	}
+
+	/**Returns true if allocated bytes can be measured on this JVM*/
+	public static boolean isSupported() {
+		return THREADS instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+	}
+
+	/**Returns total number of bytes allocated by all live threads, or -1 if not supported*/
+	public static long allocatedBytes() {
+		if (!isSupported())
+			return -1;
+		long total = 0;
+		for (long allocated : ((com.sun.management.ThreadMXBean) THREADS)
+				.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+			if (allocated > 0) {
+				total += allocated;
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,97 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.Arrays;
+
+/**Antialiased frame: root index of each pixel at base resolution, and for pixels on basin boundaries
+ * fraction of pixel area that belongs to each root. Pixels that are not on boundary are fully covered
+ * by their base index, so coverage is stored only for boundary pixels.
+ * @author gorsicleo
+ *
+ */
+public class CoverageFrame {
+
+	private int width;
+	private int height;
+	private short order;
+	private short[] data;
+	/**offsets of boundary pixels, in increasing order */
+	private int[] boundary;
+	/**for i-th boundary pixel, coverage[i * order + index] is fraction of samples with given index */
+	private float[] coverage;
+
+	/**Creates frame
+	 * @param width of frame
+	 * @param height of frame
+	 * @param order number of roots + 1
+	 * @param data root index + 1 of each pixel, 0 if pixel did not converge
+	 * @param boundary offsets of boundary pixels, in increasing order
+	 * @param coverage <code>order</code> fractions for each boundary pixel
+	 */
+	public CoverageFrame(int width, int height, short order, short[] data, int[] boundary, float[] coverage) {
+		if (data.length != width * height || coverage.length != boundary.length * order) {
+			throw new IllegalArgumentException("Data and coverage do not match frame size.");
+		}
+		this.width = width;
+		this.height = height;
+		this.order = order;
+		this.data = data;
+		this.boundary = boundary;
+		this.coverage = coverage;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public short getOrder() {
+		return order;
+	}
+
+	/**Returns root index + 1 of each pixel at base resolution*/
+	public short[] getData() {
+		return data;
+	}
+
+	/**Returns number of boundary pixels that were supersampled*/
+	public int boundaryCount() {
+		return boundary.length;
+	}
+
+	/**Returns fraction of pixel (x, y) that belongs to given index, 0 is index of pixels that did not converge*/
+	public float coverage(int x, int y, int index) {
+		int offset = y * width + x;
+		int i = Arrays.binarySearch(boundary, offset);
+		if (i < 0)
+			return data[offset] == index ? 1 : 0;
+		return coverage[i * order + index];
+	}
+
+	/**Returns color of each pixel as RGB, boundary pixels are mixed from palette colors by coverage
+	 * @param palette RGB color for each index
+	 */
+	public int[] toRgb(int[] palette) {
+		int[] rgb = new int[data.length];
+		for (int offset = 0; offset < data.length; offset++) {
+			rgb[offset] = palette[data[offset]];
+		}
+		for (int i = 0; i < boundary.length; i++) {
+			double r = 0;
+			double g = 0;
+			double b = 0;
+			for (int index = 0; index < order; index++) {
+				float fraction = coverage[i * order + index];
+				if (fraction == 0)
+					continue;
+				r += fraction * (palette[index] >> 16 & 0xFF);
+				g += fraction * (palette[index] >> 8 & 0xFF);
+				b += fraction * (palette[index] & 0xFF);
+			}
+			rgb[boundary[i]] = (int) Math.round(r) << 16 | (int) Math.round(g) << 8 | (int) Math.round(b);
+		}
+		return rgb;
+	}
+}
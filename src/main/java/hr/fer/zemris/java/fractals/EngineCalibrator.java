@@ -0,0 +1,153 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Measures render engines on current machine and polynomial and picks the fastest configuration.
+ * First every engine renders calibration frame with default number of tracks, then number of tracks
+ * is tuned for the fastest parallel engine. Each configuration renders one warm-up frame and is timed by
+ * its best run. Calibration stops trying new configurations when its time budget is spent.
+ * @author gorsicleo
+ *
+ */
+public class EngineCalibrator {
+
+	private static final int REPETITIONS = 2;
+	/**Tracks tried for each worker*/
+	private static final int[] TRACKS_PER_WORKER = { 1, 2, 4, 8, 16 };
+	private static final int DEFAULT_TRACKS_PER_WORKER = 4;
+
+	private int width;
+	private int height;
+	private long budgetMillis;
+
+	/**Chosen engine with its parameters and measured time of one frame*/
+	public static class Configuration {
+		private IRenderEngine engine;
+		private int workers;
+		private int tracks;
+		private double millis;
+
+		private Configuration(IRenderEngine engine, int workers, int tracks, double millis) {
+			this.engine = engine;
+			this.workers = workers;
+			this.tracks = tracks;
+			this.millis = millis;
+		}
+
+		public IRenderEngine getEngine() {
+			return engine;
+		}
+
+		public int getWorkers() {
+			return workers;
+		}
+
+		public int getTracks() {
+			return tracks;
+		}
+
+		/**Returns best measured time of calibration frame in milliseconds*/
+		public double getMillis() {
+			return millis;
+		}
+
+		/**Creates producer of this configuration*/
+		public IFractalProducer createProducer(ComplexRootedPolynomial roots) {
+			return engine.createProducer(roots, workers, tracks);
+		}
+
+		@Override
+		public String toString() {
+			return engine.isParallel() ? String.format("%s, %d dretvi, %d poslova", engine.getName(), workers, tracks)
+					: engine.getName();
+		}
+	}
+
+	/**Creates calibrator
+	 * @param width of calibration frame
+	 * @param height of calibration frame
+	 * @param budgetMillis time after which no new configuration is tried
+	 */
+	public EngineCalibrator(int width, int height, long budgetMillis) {
+		if (width < 2 || height < 2) {
+			throw new IllegalArgumentException("Calibration frame must be at least 2x2.");
+		}
+		this.width = width;
+		this.height = height;
+		this.budgetMillis = budgetMillis;
+	}
+
+	/**Finds fastest configuration
+	 * @param roots polynomial that will be rendered
+	 * @param engines engines to try, at least one
+	 * @param workers number of worker threads for parallel engines
+	 * @return fastest measured configuration
+	 */
+	public Configuration calibrate(ComplexRootedPolynomial roots, List<IRenderEngine> engines, int workers) {
+		if (engines.isEmpty()) {
+			throw new IllegalArgumentException("At least one engine is needed.");
+		}
+		long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+		int defaultTracks = Math.min(height, DEFAULT_TRACKS_PER_WORKER * workers);
+
+		Configuration best = null;
+		Configuration bestParallel = null;
+		for (IRenderEngine engine : engines) {
+			if (best != null && System.nanoTime() > deadline)
+				break;
+			Configuration measured = measure(roots, engine, workers, engine.isParallel() ? defaultTracks : 1);
+			best = faster(best, measured);
+			if (engine.isParallel()) {
+				bestParallel = faster(bestParallel, measured);
+			}
+		}
+
+		if (bestParallel != null) {
+			for (int tracksPerWorker : TRACKS_PER_WORKER) {
+				int tracks = Math.min(height, tracksPerWorker * workers);
+				if (tracks == defaultTracks)
+					continue;
+				if (System.nanoTime() > deadline)
+					break;
+				best = faster(best, measure(roots, bestParallel.engine, workers, tracks));
+			}
+		}
+		System.out.println("Odabrana konfiguracija: " + best);
+		return best;
+	}
+
+	private Configuration measure(ComplexRootedPolynomial roots, IRenderEngine engine, int workers, int tracks) {
+		IFractalProducer producer = engine.createProducer(roots, workers, tracks);
+		try {
+			render(producer);
+			double best = Double.MAX_VALUE;
+			for (int i = 0; i < REPETITIONS; i++) {
+				long start = System.nanoTime();
+				render(producer);
+				best = Math.min(best, (System.nanoTime() - start) / 1e6);
+			}
+			Configuration configuration = new Configuration(engine, workers, tracks, best);
+			System.out.println(String.format("Kalibracija: %s: %.1f ms", configuration, best));
+			return configuration;
+		} finally {
+			RenderEngines.close(producer);
+		}
+	}
+
+	private void render(IFractalProducer producer) {
+		boolean[] delivered = new boolean[1];
+		producer.produce(-2, 2, -2, 2, width, height, 0, (data, order, requestNo) -> delivered[0] = true,
+				new AtomicBoolean(false));
+		if (!delivered[0]) {
+			throw new IllegalStateException("Engine did not deliver calibration frame.");
+		}
+	}
+
+	private static Configuration faster(Configuration a, Configuration b) {
+		return a == null || b.millis < a.millis ? b : a;
+	}
+}
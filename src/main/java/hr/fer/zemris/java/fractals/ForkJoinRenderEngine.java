@@ -0,0 +1,26 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Engine that splits frame recursively on fork-join pool, see {@link FractalProducerForkJoinImpl}.
+ * @author gorsicleo
+ *
+ */
+public class ForkJoinRenderEngine implements IRenderEngine {
+
+	@Override
+	public String getName() {
+		return "fork-join";
+	}
+
+	@Override
+	public boolean isParallel() {
+		return true;
+	}
+
+	@Override
+	public IFractalProducer createProducer(ComplexRootedPolynomial roots, int workers, int tracks) {
+		return new FractalProducerForkJoinImpl(roots, workers, tracks);
+	}
+}
@@ -0,0 +1,110 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Producer that splits rows of frame in halves until each part has at most height / tracks rows,
+ * and calculates parts on its own fork-join pool. Idle workers steal parts from busy ones,
+ * so expensive regions of frame are balanced without cost model.
+ * @author gorsicleo
+ *
+ */
+public class FractalProducerForkJoinImpl implements IFractalProducer, AutoCloseable {
+
+	private static final int ITERATIONS = 16 * 16 * 16;
+
+	private ComplexRootedPolynomial rootedPoly;
+	private int tracks;
+	private ForkJoinPool pool;
+	/**order of polynomial + 1 */
+	private short order;
+	/**kernel for expanded polynomial */
+	private INewtonKernel kernel;
+
+	/**Creates producer
+	 * @param roots user entered polynomial
+	 * @param workers parallelism of fork-join pool
+	 * @param tracks number of smallest parts that frame is split into
+	 */
+	public FractalProducerForkJoinImpl(ComplexRootedPolynomial roots, int workers, int tracks) {
+		if (workers < 1 || tracks < 1) {
+			throw new IllegalArgumentException("Workers and tracks must be positive.");
+		}
+		this.rootedPoly = roots;
+		this.tracks = tracks;
+		this.pool = new ForkJoinPool(workers);
+		ComplexPolynomial f = roots.toComplexPolynom();
+		this.order = (short) (f.order() + 1);
+		this.kernel = NewtonKernels.create(f, IterationScheme.NEWTON, new RootDisks(roots), false);
+	}
+
+	@Override
+	public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
+			long requestNo, IFractalResultObserver observer, AtomicBoolean cancel) {
+		System.out.println("Zapocinjem izracun na fork-join bazenu...");
+		short[] data = new short[width * height];
+		int rowsPerTask = Math.max(1, (height + tracks - 1) / tracks);
+		pool.invoke(new RowsTask(new Viewport(reMin, reMax, imMin, imMax), width, height, 0, height - 1, rowsPerTask,
+				data, cancel));
+		if (cancel.get()) {
+			System.out.println("Racunanje prekinuto, rezultat se ne salje.");
+			return;
+		}
+		System.out.println("Racunanje gotovo. Idem obavijestiti promatraca tj. GUI!");
+		observer.acceptResult(data, order, requestNo);
+	}
+
+	/**Stops threads of fork-join pool*/
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**Calculates rows from yMin to yMax, splitting them while there are more than rowsPerTask*/
+	private class RowsTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private Viewport viewport;
+		private int width;
+		private int height;
+		private int yMin;
+		private int yMax;
+		private int rowsPerTask;
+		private short[] data;
+		private AtomicBoolean cancel;
+
+		private RowsTask(Viewport viewport, int width, int height, int yMin, int yMax, int rowsPerTask, short[] data,
+				AtomicBoolean cancel) {
+			this.viewport = viewport;
+			this.width = width;
+			this.height = height;
+			this.yMin = yMin;
+			this.yMax = yMax;
+			this.rowsPerTask = rowsPerTask;
+			this.data = data;
+			this.cancel = cancel;
+		}
+
+		@Override
+		protected void compute() {
+			if (cancel.get())
+				return;
+			if (yMax - yMin + 1 <= rowsPerTask) {
+				NewtonParallel.calculate(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(),
+						viewport.getImMax(), width, height, ITERATIONS, yMin, yMax, data, cancel, rootedPoly, kernel,
+						null);
+				return;
+			}
+			int middle = (yMin + yMax) / 2;
+			invokeAll(new RowsTask(viewport, width, height, yMin, middle, rowsPerTask, data, cancel),
+					new RowsTask(viewport, width, height, middle + 1, yMax, rowsPerTask, data, cancel));
+		}
+	}
+}
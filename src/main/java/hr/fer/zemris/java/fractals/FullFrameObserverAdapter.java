@@ -0,0 +1,49 @@
+package hr.fer.zemris.java.fractals;
+
+import javax.swing.SwingUtilities;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
+
+/**Adapts {@link IFractalResultObserver} to {@link IFractalTileObserver}: tiles are ignored and
+ * whole frame is given to {@link IFractalResultObserver#acceptResult} once it is finished.
+ * @author gorsicleo
+ *
+ */
+public class FullFrameObserverAdapter implements IFractalTileObserver {
+
+	private IFractalResultObserver observer;
+	/**pool that delivered buffers are returned to, null if buffers are not pooled */
+	private ShortBufferPool bufferPool;
+
+	/**Creates adapter for given observer*/
+	public FullFrameObserverAdapter(IFractalResultObserver observer) {
+		this(observer, null);
+	}
+
+	/**Creates adapter for observer that consumes data on Swing event dispatch thread, as {@link hr.fer.zemris.java.fractals.viewer.FractalViewer} does.
+	 * Delivered buffer is returned to pool by task queued on event dispatch thread after observer's own task,
+	 * so it is reused only after observer has drawn it. Buffer is therefore valid only during
+	 * {@link IFractalResultObserver#acceptResult(short[], short, long)} and event dispatch tasks queued by it;
+	 * observer that keeps buffer longer must not be given pool.
+	 * @param observer that receives finished frames
+	 * @param bufferPool pool that buffers are returned to, null if buffers are not pooled
+	 */
+	public FullFrameObserverAdapter(IFractalResultObserver observer, ShortBufferPool bufferPool) {
+		this.observer = observer;
+		this.bufferPool = bufferPool;
+	}
+
+	@Override
+	public void acceptTile(short[] data, int width, int xMin, int yMin, int xMax, int yMax, short order,
+			long requestNo) {
+	}
+
+	@Override
+	public void frameFinished(short[] data, short order, long requestNo) {
+		observer.acceptResult(data, order, requestNo);
+		if (bufferPool != null) {
+			SwingUtilities.invokeLater(() -> bufferPool.release(data));
+		}
+	}
+
+}
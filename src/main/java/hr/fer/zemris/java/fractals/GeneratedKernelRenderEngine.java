@@ -0,0 +1,18 @@
+package hr.fer.zemris.java.fractals;
+
+/**Thread pool engine with kernel generated for polynomial, see {@link NewtonKernelGenerator}.
+ * @author gorsicleo
+ *
+ */
+public class GeneratedKernelRenderEngine extends ThreadPoolRenderEngine {
+
+	@Override
+	public String getName() {
+		return "thread-pool-generated";
+	}
+
+	@Override
+	protected boolean specializeKernel() {
+		return true;
+	}
+}
@@ -0,0 +1,93 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.List;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+
+/**Generic kernel that works for any polynomial. Coefficients are copied into arrays of doubles
+ * and f and f' are evaluated together in single Horner pass, without creating {@link Complex} objects.
+ * If kernel has {@link RootDisks}, iteration stops as soon as it enters a disk and root of that disk is returned.
+ * @author gorsicleo
+ *
+ */
+public class HornerNewtonKernel implements INewtonKernel {
+
+	/**real parts of coefficients, index i belongs to z^i */
+	private double[] re;
+	/**imaginary parts of coefficients, index i belongs to z^i */
+	private double[] im;
+	/**convergence disks of roots, null if iteration always runs until step is small */
+	private RootDisks disks;
+
+	/**Creates kernel for given polynomial
+	 * @throws IllegalArgumentException if polynomial is constant
+	 */
+	public HornerNewtonKernel(ComplexPolynomial f) {
+		this(f, null);
+	}
+
+	/**Creates kernel for given polynomial that stops early inside convergence disks
+	 * @param f expanded polynomial
+	 * @param disks convergence disks of roots of f, null for none
+	 * @throws IllegalArgumentException if polynomial is constant
+	 */
+	public HornerNewtonKernel(ComplexPolynomial f, RootDisks disks) {
+		this.disks = disks;
+		List<Complex> coefficients = f.getCoefficients();
+		if (coefficients.size() < 2) {
+			throw new IllegalArgumentException("Polynomial must be at least of order 1.");
+		}
+		re = new double[coefficients.size()];
+		im = new double[coefficients.size()];
+		for (int i = 0; i < coefficients.size(); i++) {
+			re[i] = coefficients.get(i).getReal();
+			im[i] = coefficients.get(i).getImaginary();
+		}
+	}
+
+	@Override
+	public int iterate(double startRe, double startIm, int m, double[] z) {
+		int n = re.length - 1;
+		double zr = startRe;
+		double zi = startIm;
+		double sr;
+		double si;
+		int iter = 0;
+		do {
+			double fr = re[n];
+			double fi = im[n];
+			double dr = fr;
+			double di = fi;
+			double t = fr * zr - fi * zi + re[n - 1];
+			fi = fr * zi + fi * zr + im[n - 1];
+			fr = t;
+			for (int k = n - 2; k >= 0; k--) {
+				t = dr * zr - di * zi + fr;
+				di = dr * zi + di * zr + fi;
+				dr = t;
+				t = fr * zr - fi * zi + re[k];
+				fi = fr * zi + fi * zr + im[k];
+				fr = t;
+			}
+			double denominator = dr * dr + di * di;
+			sr = (fr * dr + fi * di) / denominator;
+			si = (fi * dr - fr * di) / denominator;
+			zr -= sr;
+			zi -= si;
+			iter++;
+			if (disks != null && sr * sr + si * si < disks.gateSquared) {
+				int k = disks.find(zr, zi);
+				if (k >= 0) {
+					zr = disks.re[k];
+					zi = disks.im[k];
+					break;
+				}
+			}
+		} while (iter < m && Math.sqrt(sr * sr + si * si) > CONVERGENCE_THRESHOLD);
+		z[0] = zr;
+		z[1] = zi;
+		return iter;
+	}
+
+}
@@ -0,0 +1,95 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.List;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+
+/**Generic kernel for iterations that use second derivative. f, f' and f'' are evaluated together in
+ * single Horner pass and step is
+ * <pre>s = c f f' / (c f'^2 - f f'')</pre>
+ * where c = 2 gives Halley's method (cubic convergence to simple roots) and c = 1 gives Schröder's method,
+ * which is Newton's method applied to f/f' and converges quadratically to roots of any multiplicity.
+ * Iteration stops on same condition as Newton's, so pixels are assigned to roots in the same way.
+ * @author gorsicleo
+ *
+ */
+public class HornerSecondOrderKernel implements INewtonKernel {
+
+	/**weight of Halley's method */
+	public static final double HALLEY = 2;
+	/**weight of Schröder's method */
+	public static final double SCHRODER = 1;
+
+	/**real parts of coefficients, index i belongs to z^i */
+	private double[] re;
+	/**imaginary parts of coefficients, index i belongs to z^i */
+	private double[] im;
+	/**weight c of f'^2 in step */
+	private double c;
+
+	/**Creates kernel for given polynomial
+	 * @param f polynomial
+	 * @param c {@link #HALLEY} or {@link #SCHRODER}
+	 * @throws IllegalArgumentException if polynomial is constant
+	 */
+	public HornerSecondOrderKernel(ComplexPolynomial f, double c) {
+		List<Complex> coefficients = f.getCoefficients();
+		if (coefficients.size() < 2) {
+			throw new IllegalArgumentException("Polynomial must be at least of order 1.");
+		}
+		re = new double[coefficients.size()];
+		im = new double[coefficients.size()];
+		for (int i = 0; i < coefficients.size(); i++) {
+			re[i] = coefficients.get(i).getReal();
+			im[i] = coefficients.get(i).getImaginary();
+		}
+		this.c = c;
+	}
+
+	@Override
+	public int iterate(double startRe, double startIm, int m, double[] z) {
+		int n = re.length - 1;
+		double zr = startRe;
+		double zi = startIm;
+		double sr;
+		double si;
+		int iter = 0;
+		do {
+			double fr = re[n];
+			double fi = im[n];
+			double dr = 0;
+			double di = 0;
+			// h is f''/2
+			double hr = 0;
+			double hi = 0;
+			for (int k = n - 1; k >= 0; k--) {
+				double t = hr * zr - hi * zi + dr;
+				hi = hr * zi + hi * zr + di;
+				hr = t;
+				t = dr * zr - di * zi + fr;
+				di = dr * zi + di * zr + fi;
+				dr = t;
+				t = fr * zr - fi * zi + re[k];
+				fi = fr * zi + fi * zr + im[k];
+				fr = t;
+			}
+			// a = f f'
+			double ar = fr * dr - fi * di;
+			double ai = fr * di + fi * dr;
+			// b = c f'^2 - f f''
+			double br = c * (dr * dr - di * di) - 2 * (fr * hr - fi * hi);
+			double bi = c * 2 * dr * di - 2 * (fr * hi + fi * hr);
+			double denominator = br * br + bi * bi;
+			sr = c * (ar * br + ai * bi) / denominator;
+			si = c * (ai * br - ar * bi) / denominator;
+			zr -= sr;
+			zi -= si;
+			iter++;
+		} while (iter < m && Math.sqrt(sr * sr + si * si) > CONVERGENCE_THRESHOLD);
+		z[0] = zr;
+		z[1] = zi;
+		return iter;
+	}
+
+}
@@ -0,0 +1,31 @@
+package hr.fer.zemris.java.fractals;
+
+/**Observer that receives parts of frame as soon as they are calculated, instead of
+ * waiting for whole frame. Use {@link FullFrameObserverAdapter} where only whole frame is needed.
+ * @author gorsicleo
+ *
+ */
+public interface IFractalTileObserver {
+
+	/**Called when rectangle of frame from (xMin, yMin) to (xMax, yMax), both inclusive, is calculated.
+	 * Tiles are delivered from worker threads, possibly concurrently and in any order.
+	 * @param data buffer of whole frame, row by row; only pixels of this tile and of already delivered tiles are final
+	 * @param width of frame
+	 * @param xMin first column of tile
+	 * @param yMin first row of tile
+	 * @param xMax last column of tile
+	 * @param yMax last row of tile
+	 * @param order number of roots + 1
+	 * @param requestNo number of request that frame belongs to
+	 */
+	void acceptTile(short[] data, int width, int xMin, int yMin, int xMax, int yMax, short order, long requestNo);
+
+	/**Called once after all tiles of frame are delivered. Not called if calculation was cancelled or
+	 * superseded by newer request; then some tiles were not delivered, and tiles finished after cancel
+	 * flag was set are not delivered.
+	 * @param data buffer of whole frame
+	 * @param order number of roots + 1
+	 * @param requestNo number of request that frame belongs to
+	 */
+	void frameFinished(short[] data, short order, long requestNo);
+}
@@ -0,0 +1,21 @@
+package hr.fer.zemris.java.fractals;
+
+import java.io.IOException;
+
+/**Consumer of rendered animation frames. Frames are given in order, one at a time.
+ * @author gorsicleo
+ *
+ */
+public interface IFrameWriter {
+
+	/**Encodes and writes single frame. Renderer reuses data buffer for later frames as soon as this method
+	 * returns, so writer that needs pixels afterwards must copy them.
+	 * @param frameNo index of frame in animation, starting from 0
+	 * @param data root index for each pixel (0 if pixel did not converge), valid only during this call
+	 * @param width of frame
+	 * @param height of frame
+	 * @param order number of roots + 1
+	 * @throws IOException if frame cannot be written
+	 */
+	void writeFrame(int frameNo, short[] data, int width, int height, short order) throws IOException;
+}
@@ -0,0 +1,24 @@
+package hr.fer.zemris.java.fractals;
+
+/**Newton-Raphson iteration for one fixed polynomial, evaluated on primitive doubles.
+ * Implementations are stateless and can be shared between threads.
+ * @author gorsicleo
+ *
+ */
+public interface INewtonKernel {
+
+	/**Iteration stops when step is not bigger than this value*/
+	double CONVERGENCE_THRESHOLD = 0.001;
+	/**Maximum distance of converged point from root for pixel to be assigned to that root*/
+	double ROOT_THRESHOLD = 0.002;
+
+	/**Iterates from point (re + im i) until step is not bigger than {@link #CONVERGENCE_THRESHOLD}
+	 * or <code>m</code> iterations are done.
+	 * @param re real part of starting point
+	 * @param im imaginary part of starting point
+	 * @param m maximum number of iterations
+	 * @param z array of length 2 into which real and imaginary part of last point are stored
+	 * @return number of iterations done
+	 */
+	int iterate(double re, double im, int m, double[] z);
+}
@@ -0,0 +1,29 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Render engine that can be plugged in through {@link java.util.ServiceLoader}. Engines are listed in
+ * <code>META-INF/services/hr.fer.zemris.java.fractals.IRenderEngine</code> and must have public constructor
+ * without arguments. Producer may own threads; if it implements {@link AutoCloseable} it is closed when
+ * it is no longer used.
+ * @author gorsicleo
+ *
+ */
+public interface IRenderEngine {
+
+	/**Returns unique name of engine, used to select it from command line*/
+	String getName();
+
+	/**Returns true if engine uses workers and tracks, serial engines ignore them*/
+	boolean isParallel();
+
+	/**Creates producer for given polynomial. Producer gives every delivered frame its own buffer, which
+	 * observer may keep, so result buffers must not be pooled.
+	 * @param roots user entered polynomial
+	 * @param workers number of calculation threads
+	 * @param tracks number of jobs each frame is split into
+	 * @return producer
+	 */
+	IFractalProducer createProducer(ComplexRootedPolynomial roots, int workers, int tracks);
+}
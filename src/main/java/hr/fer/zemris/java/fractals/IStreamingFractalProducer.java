@@ -0,0 +1,48 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
+
+/**Fractal producer that delivers frame tile by tile to {@link IFractalTileObserver}.
+ * Whole-frame {@link IFractalResultObserver} is supported through {@link FullFrameObserverAdapter}.
+ * @author gorsicleo
+ *
+ */
+public interface IStreamingFractalProducer extends IFractalProducer {
+
+	/**Calculates frame for given edges of complex plane and display size and delivers
+	 * each calculated tile to observer.
+	 */
+	void produce(double reMin, double reMax, double imMin, double imMax, int width, int height, long requestNo,
+			IFractalTileObserver observer, AtomicBoolean cancel);
+
+	@Override
+	default void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
+			long requestNo, IFractalResultObserver observer, AtomicBoolean cancel) {
+		produce(reMin, reMax, imMin, imMax, width, height, requestNo, new FullFrameObserverAdapter(observer), cancel);
+	}
+
+	/**Adapts producer that delivers only whole frames. Whole frame is delivered as single tile.
+	 * @param producer to be adapted
+	 * @return streaming producer
+	 */
+	static IStreamingFractalProducer of(IFractalProducer producer) {
+		if (producer instanceof IStreamingFractalProducer) {
+			return (IStreamingFractalProducer) producer;
+		}
+		return new IStreamingFractalProducer() {
+			@Override
+			public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
+					long requestNo, IFractalTileObserver observer, AtomicBoolean cancel) {
+				producer.produce(reMin, reMax, imMin, imMax, width, height, requestNo, (data, order, no) -> {
+					if (!cancel.get()) {
+						observer.acceptTile(data, width, 0, 0, width - 1, height - 1, order, no);
+					}
+					observer.frameFinished(data, order, no);
+				}, cancel);
+			}
+		};
+	}
+}
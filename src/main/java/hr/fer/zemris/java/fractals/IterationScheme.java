@@ -0,0 +1,42 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.math.ComplexPolynomial;
+
+/**Root finding iteration used for calculating fractal. All schemes stop on the same condition and pixels
+ * are assigned to closest root in the same way, only path to root differs.
+ * @author gorsicleo
+ *
+ */
+public enum IterationScheme {
+
+	/**Newton-Raphson iteration, converges linearly to multiple roots*/
+	NEWTON,
+	/**Halley's iteration, converges cubically to simple roots*/
+	HALLEY,
+	/**Schröder's iteration (Newton's applied to f/f'), converges quadratically to roots of any multiplicity*/
+	SCHRODER;
+
+	/**Creates generic kernel of this scheme for given polynomial*/
+	public INewtonKernel createKernel(ComplexPolynomial f) {
+		switch (this) {
+		case HALLEY:
+			return new HornerSecondOrderKernel(f, HornerSecondOrderKernel.HALLEY);
+		case SCHRODER:
+			return new HornerSecondOrderKernel(f, HornerSecondOrderKernel.SCHRODER);
+		default:
+			return new HornerNewtonKernel(f);
+		}
+	}
+
+	/**Parses scheme from its name, case is ignored
+	 * @throws IllegalArgumentException if there is no such scheme
+	 */
+	public static IterationScheme parse(String name) {
+		for (IterationScheme scheme : values()) {
+			if (scheme.name().equalsIgnoreCase(name.trim())) {
+				return scheme;
+			}
+		}
+		throw new IllegalArgumentException("Unknown iteration method: " + name + ", use newton, halley or schroder.");
+	}
+}
@@ -17,12 +17,17 @@ import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
  *
  */
 public class Newton {
+
+	/**Input line that switches from entering roots to entering coefficients*/
+	private static final String COEFFICIENTS_COMMAND = "coefficients";
 	
 	
-	/**Concrete implementation of FractalProducer that calculates data for displaying fractal
+	/**Concrete implementation of FractalProducer that calculates data for displaying fractal.
+	 * Iteration runs on {@link Complex} with {@link ComplexPolynomial#apply(Complex)}, exactly as it always did,
+	 * so this producer is reference that faster engines are compared with.
 	 * @author gorsicleo
 	 */
-	private static class FractalProducerSerialImpl implements IFractalProducer {
+	static class FractalProducerSerialImpl implements IFractalProducer {
 		
 		/**User-entered polynomial*/
 		private ComplexRootedPolynomial rootedPoly;
@@ -49,6 +54,7 @@ public class Newton {
 			Complex zn;
 			Complex znOld;
 			ComplexPolynomial f = rootedPoly.toComplexPolynom();
+			ComplexPolynomial derivative = f.derive();
 			
 			for(int y = 0; y < height; y++) {
 				if(cancel.get()) break;
@@ -58,7 +64,7 @@ public class Newton {
 					int iter = 0;
 					do {
 						znOld = zn;
-						zn = zn.sub(f.apply(zn).divide(f.derive().apply(zn))); 
+						zn = zn.sub(f.apply(zn).divide(derivative.apply(zn))); 
 						iter++;
 					} while(iter < m && zn.sub(znOld).module() > 0.001);
 					int index = rootedPoly.indexOfClosestRootFor(zn, 0.002);
@@ -86,6 +92,7 @@ public class Newton {
 	public static ComplexRootedPolynomial inputRoots() {
 		System.out.println("Welcome to Newton-Raphson iteration-based fractal viewer.");
 		System.out.println("Please enter at least two roots, one root per line. Enter 'done' when done.");
+		System.out.println("To enter polynomial by coefficients instead, enter '" + COEFFICIENTS_COMMAND + "' first.");
 
 		Scanner sc = new Scanner(System.in);
 		String line;
@@ -103,6 +110,13 @@ public class Newton {
 			if (line.equalsIgnoreCase("done"))
 				break;
 
+			if (roots.isEmpty() && line.equalsIgnoreCase(COEFFICIENTS_COMMAND)) {
+				ComplexRootedPolynomial rootedPoly = inputCoefficients(sc);
+				sc.close();
+				System.out.println("Image of fractal will appear shortly. Thank you.");
+				return rootedPoly;
+			}
+
 			roots.add(parseComplex(line));
 			
 			
@@ -116,6 +130,27 @@ public class Newton {
 		return new ComplexRootedPolynomial(new Complex(1,0),polynomRots);
 	}
 
+	/**Reads coefficients of polynomial, starting with constant term, until 'done' is entered,
+	 * and finds roots of polynomial with {@link ComplexPolynomial#toRootedPolynomial()}
+	 * @param sc scanner of user input
+	 * @return polynomial in rooted form
+	 */
+	private static ComplexRootedPolynomial inputCoefficients(Scanner sc) {
+		List<Complex> coefficients = new ArrayList<>();
+		System.out.printf("Coefficient of z^%d> ", 0);
+		while (sc.hasNextLine()) {
+			String line = sc.nextLine();
+			if (line.equalsIgnoreCase("done"))
+				break;
+			coefficients.add(parseComplex(line));
+			System.out.printf("Coefficient of z^%d> ", coefficients.size());
+		}
+		ComplexPolynomial f = new ComplexPolynomial(coefficients.toArray(new Complex[0]));
+		ComplexRootedPolynomial rootedPoly = f.toRootedPolynomial();
+		System.out.println("Roots of " + f + ": " + rootedPoly);
+		return rootedPoly;
+	}
+
 	/**Method parses complex number in format of RE +/- iIM.
 	 * Examples of correct syntax: 0 + i0, 0, i, - i, -4 + i2.4 etc...
 	 * NOTE that there must be a space between real and imaginary part.
@@ -123,7 +158,7 @@ public class Newton {
 	 * @param line user input
 	 * @return parsed Complex number
 	 */
-	private static Complex parseComplex(String line) {
+	public static Complex parseComplex(String line) {
 		String[] parts = line.split("i");
 		String real;
 		String imaginary;
@@ -177,8 +212,28 @@ public class Newton {
 	 */
 	public static Complex mapToComplexPlain(int x, int y, int xMin, int xMax, int yMin, int yMax, double reMin, double reMax,
 			double imMin, double imMax) {
-		double real = x / (xMax-1.0) * (reMax - reMin) + reMin;
-		double imaginary = (yMax-1.0-y) / (yMax-1) * (imMax - imMin) + imMin;
-		return new Complex(real, imaginary);
+		return new Complex(mapToReal(x, xMax, reMin, reMax), mapToImaginary(y, yMax, imMin, imMax));
+	}
+
+	/**Maps x coordinate of display onto real part of complex plane
+	 * @param x coordinate
+	 * @param width of display
+	 * @param reMin smallest real value of complex plane
+	 * @param reMax biggest real value of complex plane
+	 * @return real part of complex number
+	 */
+	public static double mapToReal(int x, int width, double reMin, double reMax) {
+		return x / (width-1.0) * (reMax - reMin) + reMin;
+	}
+
+	/**Maps y coordinate of display onto imaginary part of complex plane, y grows downwards
+	 * @param y coordinate
+	 * @param height of display
+	 * @param imMin smallest imaginary value of complex plane
+	 * @param imMax biggest imaginary value of complex plane
+	 * @return imaginary part of complex number
+	 */
+	public static double mapToImaginary(int y, int height, double imMin, double imMax) {
+		return (height-1.0-y) / (height-1) * (imMax - imMin) + imMin;
 	}
 }
@@ -0,0 +1,92 @@
+package hr.fer.zemris.java.fractals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Class that renders zoom fly-through animation of Newton-Raphson fractal into directory of PNG frames.
+ * Keyframes are read from file, one viewport per line in format of "reMin reMax imMin imMax".
+ * With --antialias=k pixels on basin boundaries are supersampled k x k times, see {@link AdaptiveSupersampler}.
+ * @author gorsicleo
+ *
+ */
+public class NewtonAnimation {
+
+	private static final String KEYFRAMES_ARGUMENT = "--keyframes=";
+	private static final String FRAMES_ARGUMENT = "--frames=";
+	private static final String SIZE_ARGUMENT = "--size=";
+	private static final String OUTPUT_ARGUMENT = "--output=";
+	private static final String IN_FLIGHT_ARGUMENT = "--in-flight=";
+	private static final String ANTIALIAS_ARGUMENT = "--antialias=";
+
+	public static void main(String[] args) throws IOException {
+		List<Viewport> keyframes = readKeyframes(
+				Paths.get(NewtonParallel.argument(args, KEYFRAMES_ARGUMENT, "keyframes.txt")));
+		int framesPerSegment = Integer.parseInt(NewtonParallel.argument(args, FRAMES_ARGUMENT, "30"));
+		String[] size = NewtonParallel.argument(args, SIZE_ARGUMENT, "800x600").split("x");
+		Path output = Paths.get(NewtonParallel.argument(args, OUTPUT_ARGUMENT, "frames"));
+		int framesInFlight = Integer.parseInt(NewtonParallel.argument(args, IN_FLIGHT_ARGUMENT, "3"));
+		int antialias = Integer.parseInt(NewtonParallel.argument(args, ANTIALIAS_ARGUMENT, "1"));
+		int[] parallelization = NewtonParallel.parseArgs(args);
+
+		ComplexRootedPolynomial roots = Newton.inputRoots();
+		List<Viewport> path = interpolate(keyframes, framesPerSegment);
+
+		PipelinedAnimationRenderer renderer = new PipelinedAnimationRenderer(roots, parallelization[0],
+				parallelization[1], framesInFlight);
+		PngFrameWriter png = new PngFrameWriter(output);
+		IFrameWriter writer = png;
+		ExecutorService samplers = null;
+		if (antialias > 1) {
+			samplers = Executors.newFixedThreadPool(parallelization[0]);
+			AdaptiveSupersampler supersampler = new AdaptiveSupersampler(roots,
+					new HornerNewtonKernel(roots.toComplexPolynom(), new RootDisks(roots)), antialias, samplers);
+			writer = (frameNo, data, width, height, order) -> png.writeFrame(frameNo,
+					supersampler.supersample(path.get(frameNo), data, width, height, order));
+		}
+		try {
+			double fps = renderer.render(path, Integer.parseInt(size[0]), Integer.parseInt(size[1]), writer);
+			System.out.println(String.format("Animacija gotova: %d frameova, %.2f fps", path.size(), fps));
+		} finally {
+			if (samplers != null) {
+				samplers.shutdown();
+			}
+		}
+	}
+
+	/**Creates viewport for each frame of animation that passes through all keyframes
+	 * @param keyframes viewports that animation passes through
+	 * @param framesPerSegment number of frames between two keyframes
+	 * @return list of viewports, one for each frame
+	 */
+	public static List<Viewport> interpolate(List<Viewport> keyframes, int framesPerSegment) {
+		if (keyframes.isEmpty() || framesPerSegment < 1) {
+			throw new IllegalArgumentException("At least one keyframe and one frame per segment are needed.");
+		}
+		List<Viewport> path = new ArrayList<>();
+		for (int i = 0; i < keyframes.size() - 1; i++) {
+			for (int frame = 0; frame < framesPerSegment; frame++) {
+				path.add(keyframes.get(i).interpolate(keyframes.get(i + 1), frame / (double) framesPerSegment));
+			}
+		}
+		path.add(keyframes.get(keyframes.size() - 1));
+		return path;
+	}
+
+	private static List<Viewport> readKeyframes(Path file) throws IOException {
+		List<Viewport> keyframes = new ArrayList<>();
+		for (String line : Files.readAllLines(file)) {
+			if (!line.isBlank()) {
+				keyframes.add(Viewport.parse(line));
+			}
+		}
+		return keyframes;
+	}
+}
@@ -0,0 +1,286 @@
+package hr.fer.zemris.java.fractals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+
+/**Generates {@link INewtonKernel} specialized for one polynomial.
+ * Horner scheme for f and f' is fully unrolled, coefficients are embedded as constants and terms
+ * with zero coefficients are left out. Source is compiled in memory and defined as hidden class,
+ * so class is unloaded as soon as kernel is no longer used.
+ * Compiling needs system Java compiler, which JDK has and JRE does not; {@link #isAvailable()} tells whether
+ * kernels can be generated, and {@link NewtonKernels} uses {@link HornerNewtonKernel} when they cannot.
+ * Generated kernel does the same floating point operations in the same order as {@link HornerNewtonKernel},
+ * only additions and multiplications by constant zero and one are skipped. Convergence disks are checked
+ * in the same order with roots and radii embedded as constants.
+ * @author gorsicleo
+ *
+ */
+public class NewtonKernelGenerator {
+
+	private static final String PACKAGE = NewtonKernelGenerator.class.getPackageName();
+	private static final String CLASS_NAME = "GeneratedNewtonKernel";
+
+	/**Value used in generated expressions, either constant or name of local variable*/
+	private static class Operand {
+		private Double constant;
+		private String name;
+
+		private static Operand constant(double value) {
+			Operand operand = new Operand();
+			operand.constant = value;
+			return operand;
+		}
+
+		private static Operand variable(String name) {
+			Operand operand = new Operand();
+			operand.name = name;
+			return operand;
+		}
+
+		private boolean isZero() {
+			return constant != null && constant == 0;
+		}
+
+		@Override
+		public String toString() {
+			if (name != null)
+				return name;
+			return constant < 0 ? "(" + Double.toHexString(constant) + ")" : Double.toHexString(constant);
+		}
+	}
+
+	/**Returns whether kernels can be generated, that is whether system Java compiler is available*/
+	public static boolean isAvailable() {
+		return ToolProvider.getSystemJavaCompiler() != null;
+	}
+
+	/**Generates, compiles and loads kernel for given polynomial
+	 * @param f polynomial of order at least 1 with finite coefficients
+	 * @return specialized kernel
+	 * @throws IllegalArgumentException if polynomial is constant or has non finite coefficient
+	 * @throws IllegalStateException if compiler is not available or generated class cannot be loaded
+	 */
+	public static INewtonKernel generate(ComplexPolynomial f) {
+		return generate(f, null);
+	}
+
+	/**Generates, compiles and loads kernel for given polynomial that stops early inside convergence disks
+	 * @param f polynomial of order at least 1 with finite coefficients
+	 * @param disks convergence disks of roots of f, null for none
+	 * @return specialized kernel
+	 * @throws IllegalArgumentException if polynomial is constant or has non finite coefficient
+	 * @throws IllegalStateException if compiler is not available or generated class cannot be loaded
+	 */
+	public static INewtonKernel generate(ComplexPolynomial f, RootDisks disks) {
+		byte[] bytes = compile(generateSource(f, disks));
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+			return (INewtonKernel) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+					.invoke();
+		} catch (Throwable e) {
+			throw new IllegalStateException("Generated kernel cannot be loaded.", e);
+		}
+	}
+
+	/**Generates source code of kernel for given polynomial*/
+	static String generateSource(ComplexPolynomial f) {
+		return generateSource(f, null);
+	}
+
+	/**Generates source code of kernel for given polynomial and convergence disks*/
+	static String generateSource(ComplexPolynomial f, RootDisks disks) {
+		List<Complex> coef = f.getCoefficients();
+		int n = coef.size() - 1;
+		if (n < 1) {
+			throw new IllegalArgumentException("Polynomial must be at least of order 1.");
+		}
+		for (Complex c : coef) {
+			if (!Double.isFinite(c.getReal()) || !Double.isFinite(c.getImaginary())) {
+				throw new IllegalArgumentException("Polynomial coefficients must be finite.");
+			}
+		}
+
+		StringBuilder body = new StringBuilder();
+		Operand fr = Operand.constant(coef.get(n).getReal());
+		Operand fi = Operand.constant(coef.get(n).getImaginary());
+		Operand dr = fr;
+		Operand di = fi;
+		for (int k = n - 1; k >= 0; k--) {
+			if (k < n - 1) {
+				Operand nextDr = assign(body, "dr" + k, sum(product(dr, "zr"), negate(product(di, "zi")), fr));
+				di = assign(body, "di" + k, sum(product(dr, "zi"), product(di, "zr"), fi));
+				dr = nextDr;
+			}
+			Operand nextFr = assign(body, "fr" + k,
+					sum(product(fr, "zr"), negate(product(fi, "zi")), Operand.constant(coef.get(k).getReal())));
+			fi = assign(body, "fi" + k,
+					sum(product(fr, "zi"), product(fi, "zr"), Operand.constant(coef.get(k).getImaginary())));
+			fr = nextFr;
+		}
+
+		return "package " + PACKAGE + ";\n"
+				+ "public final class " + CLASS_NAME + " implements INewtonKernel {\n"
+				+ "	@Override\n"
+				+ "	public int iterate(double startRe, double startIm, int m, double[] z) {\n"
+				+ "		double zr = startRe;\n"
+				+ "		double zi = startIm;\n"
+				+ "		double sr;\n"
+				+ "		double si;\n"
+				+ "		int iter = 0;\n"
+				+ "		do {\n"
+				+ body
+				+ "			double denominator = " + dr + " * " + dr + " + " + di + " * " + di + ";\n"
+				+ "			sr = (" + fr + " * " + dr + " + " + fi + " * " + di + ") / denominator;\n"
+				+ "			si = (" + fi + " * " + dr + " - " + fr + " * " + di + ") / denominator;\n"
+				+ "			zr -= sr;\n"
+				+ "			zi -= si;\n"
+				+ "			iter++;\n"
+				+ diskChecks(disks)
+				+ "		} while (iter < m && Math.sqrt(sr * sr + si * si) > CONVERGENCE_THRESHOLD);\n"
+				+ "		z[0] = zr;\n"
+				+ "		z[1] = zi;\n"
+				+ "		return iter;\n"
+				+ "	}\n"
+				+ "}\n";
+	}
+
+	/**Returns checks that end iteration in root when point is inside its disk*/
+	private static String diskChecks(RootDisks disks) {
+		if (disks == null || disks.size() == 0)
+			return "";
+		StringBuilder checks = new StringBuilder();
+		checks.append("			if (sr * sr + si * si < ").append(Operand.constant(disks.gateSquared)).append(") {\n");
+		for (int k = 0; k < disks.size(); k++) {
+			Operand re = Operand.constant(disks.re[k]);
+			Operand im = Operand.constant(disks.im[k]);
+			checks.append("				double er").append(k).append(" = zr - ").append(re).append(";\n");
+			checks.append("				double ei").append(k).append(" = zi - ").append(im).append(";\n");
+			checks.append("				if (er").append(k).append(" * er").append(k).append(" + ei").append(k)
+					.append(" * ei").append(k).append(" < ").append(Operand.constant(disks.radiusSquared[k]))
+					.append(") {\n");
+			checks.append("					zr = ").append(re).append(";\n");
+			checks.append("					zi = ").append(im).append(";\n");
+			checks.append("					break;\n");
+			checks.append("				}\n");
+		}
+		checks.append("			}\n");
+		return checks.toString();
+	}
+
+	/**Returns term <code>operand * variable</code>, or null if operand is constant zero*/
+	private static String product(Operand operand, String variable) {
+		if (operand.isZero())
+			return null;
+		if (operand.constant != null && operand.constant == 1)
+			return "+" + variable;
+		if (operand.constant != null && operand.constant == -1)
+			return "-" + variable;
+		return "+" + operand + " * " + variable;
+	}
+
+	private static String negate(String term) {
+		if (term == null)
+			return null;
+		return (term.charAt(0) == '-' ? "+" : "-") + term.substring(1);
+	}
+
+	/**Joins non-null terms from left to right, constant zero is left out*/
+	private static String sum(String first, String second, Operand last) {
+		List<String> terms = new ArrayList<>();
+		if (first != null)
+			terms.add(first);
+		if (second != null)
+			terms.add(second);
+		if (!last.isZero())
+			terms.add("+" + last);
+		if (terms.isEmpty())
+			return "0.0";
+
+		StringBuilder sb = new StringBuilder();
+		for (String term : terms) {
+			if (sb.length() == 0) {
+				sb.append(term.charAt(0) == '-' ? "-" : "").append(term.substring(1));
+			} else {
+				sb.append(' ').append(term.charAt(0)).append(' ').append(term.substring(1));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static Operand assign(StringBuilder body, String name, String expression) {
+		body.append("			double ").append(name).append(" = ").append(expression).append(";\n");
+		return Operand.variable(name);
+	}
+
+	/**Compiles source in memory and returns bytes of class file*/
+	private static byte[] compile(String source) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("Java compiler is not available, run on JDK to generate kernels.");
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		StandardJavaFileManager standardManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+		JavaFileManager fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardManager) {
+			@Override
+			public JavaFileObject getJavaFileForOutput(Location location, String className, Kind kind,
+					FileObject sibling) {
+				return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension),
+						kind) {
+					@Override
+					public OutputStream openOutputStream() {
+						return bytes;
+					}
+				};
+			}
+		};
+		JavaFileObject sourceFile = new SimpleJavaFileObject(
+				URI.create("string:///" + PACKAGE.replace('.', '/') + "/" + CLASS_NAME + Kind.SOURCE.extension),
+				Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return source;
+			}
+		};
+
+		StringWriter diagnostics = new StringWriter();
+		List<String> options = List.of("-classpath", kernelInterfaceLocation(), "-g:none", "-proc:none");
+		boolean compiled = compiler.getTask(diagnostics, fileManager, null, options, null, List.of(sourceFile))
+				.call();
+		if (!compiled) {
+			throw new IllegalStateException("Generated kernel cannot be compiled: " + diagnostics);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**Returns class path entry that contains {@link INewtonKernel}*/
+	private static String kernelInterfaceLocation() {
+		try {
+			return Paths.get(INewtonKernel.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+					.toString();
+		} catch (Exception e) {
+			return System.getProperty("java.class.path");
+		}
+	}
+}
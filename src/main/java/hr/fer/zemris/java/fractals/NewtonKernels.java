@@ -0,0 +1,52 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.math.ComplexPolynomial;
+
+/**Creates {@link INewtonKernel} for given polynomial.
+ * @author gorsicleo
+ *
+ */
+public class NewtonKernels {
+
+	private NewtonKernels() {
+	}
+
+	/**Creates kernel for given polynomial. If <code>specialize</code> is true, kernel is generated
+	 * with {@link NewtonKernelGenerator}, and if generation fails or there is no Java compiler (program runs
+	 * on JRE) generic {@link HornerNewtonKernel} is used.
+	 * @param f expanded polynomial
+	 * @param specialize whether kernel should be generated for this polynomial
+	 * @return kernel for polynomial
+	 */
+	public static INewtonKernel create(ComplexPolynomial f, boolean specialize) {
+		return create(f, IterationScheme.NEWTON, null, specialize);
+	}
+
+	/**Creates kernel of given iteration scheme for given polynomial. Kernels are generated and
+	 * convergence disks are used only for {@link IterationScheme#NEWTON}, other schemes always use generic kernel.
+	 * @param f expanded polynomial
+	 * @param scheme iteration used by kernel
+	 * @param disks convergence disks of roots of f, null for none
+	 * @param specialize whether kernel should be generated for this polynomial
+	 * @return kernel for polynomial
+	 */
+	public static INewtonKernel create(ComplexPolynomial f, IterationScheme scheme, RootDisks disks,
+			boolean specialize) {
+		if (scheme != IterationScheme.NEWTON) {
+			if (specialize) {
+				System.out.println("Specijalizirani kernel postoji samo za Newtonovu iteraciju, koristim genericki.");
+			}
+			return scheme.createKernel(f);
+		}
+		if (specialize && !NewtonKernelGenerator.isAvailable()) {
+			System.out.println("Java prevodilac nije dostupan (JRE), koristim genericki kernel.");
+		} else if (specialize) {
+			try {
+				return NewtonKernelGenerator.generate(f, disks);
+			} catch (IllegalStateException | IllegalArgumentException e) {
+				System.out.println("Specijalizirani kernel nije dostupan, koristim genericki: " + e.getMessage());
+			}
+		}
+		return new HornerNewtonKernel(f, disks);
+	}
+}
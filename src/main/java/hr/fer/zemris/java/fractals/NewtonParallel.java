@@ -1,13 +1,11 @@
 package hr.fer.zemris.java.fractals;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import hr.fer.zemris.java.fractals.viewer.FractalViewer;
-import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
 import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
-import hr.fer.zemris.math.Complex;
 import hr.fer.zemris.math.ComplexPolynomial;
 import hr.fer.zemris.math.ComplexRootedPolynomial;
 
@@ -21,6 +19,13 @@ public class NewtonParallel {
 	private static final String TRACKS_ARGUMENT_LONG = "--tracks=";
 	private static final String WORKERS_ARGUMENT_SHORT = "-w ";
 	private static final String WORKERS_ARGUMENT_LONG = "--workers=";
+	private static final String KERNEL_ARGUMENT = "--kernel=";
+	private static final String GENERATED_KERNEL = "generated";
+	private static final String METHOD_ARGUMENT = "--method=";
+	/**Number of free result buffers of each size kept by producer for viewer */
+	private static final int POOLED_FRAMES = 2;
+	/**Scratch space for kernel result, one per worker thread */
+	private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[2]);
 
 	/**Model of calculation job for one thread
 	 * @author gorsicleo
@@ -53,13 +58,24 @@ public class NewtonParallel {
 		private AtomicBoolean cancel;
 		/**user entered polynomial */
 		private ComplexRootedPolynomial poly;
+		/**iteration for expanded polynomial */
+		private INewtonKernel kernel;
+		/**number of iterations for each row, filled by this job for its rows */
+		private long[] rowCost;
+		/**observer that receives calculated rows */
+		private IFractalTileObserver observer;
+		/**number of roots + 1 */
+		private short order;
+		/**number of request that job belongs to */
+		private long requestNo;
 
 		/**Creates empty calculation job*/
 		public CalculationJob() {}
 		
 		/**Creates new calculation job on given parameters*/
 		public CalculationJob(double reMin, double reMax, double imMin, double imMax, int width, int height, int yMin,
-				int yMax, int m, short[] data, AtomicBoolean cancel, ComplexRootedPolynomial poly) {
+				int yMax, int m, short[] data, AtomicBoolean cancel, ComplexRootedPolynomial poly, INewtonKernel kernel,
+				long[] rowCost, IFractalTileObserver observer, short order, long requestNo) {
 			super();
 			this.reMin = reMin;
 			this.reMax = reMax;
@@ -73,148 +89,258 @@ public class NewtonParallel {
 			this.data = data;
 			this.cancel = cancel;
 			this.poly = poly;
+			this.kernel = kernel;
+			this.rowCost = rowCost;
+			this.observer = observer;
+			this.order = order;
+			this.requestNo = requestNo;
 		}
 
+		/**Calculates rows of this job tile by tile, see {@link TileRenderer}, and unless calculation was cancelled,
+		 * delivers them to observer*/
 		@Override
 		public void run() {
-			NewtonParallel.calculate(reMin, reMax, imMin, imMax, width, height, m, yMin, yMax, data, cancel, poly);
+			TileRenderer.calculate(reMin, reMax, imMin, imMax, width, height, m, yMin, yMax, data, cancel, poly,
+					kernel, rowCost);
+			if (observer != null && !cancel.get()) {
+				observer.acceptTile(data, width, 0, yMin, width - 1, yMax, order, requestNo);
+			}
 		}
 		
 	}
 
 	
-	/**Concrete implementation of FractalProducer that calculates data for displaying fractal
+	/**Concrete implementation of FractalProducer that calculates data for displaying fractal.
+	 * <p>Polynomial is expanded and kernel created once per producer. By default every frame gets new buffer,
+	 * which belongs to observer once it is delivered. Pooling is opt-in: if producer has {@link ShortBufferPool},
+	 * result buffers are taken from it, buffer of cancelled frame is returned immediately, and observer that
+	 * receives finished frame should return it with {@link ShortBufferPool#release(short[])} when it is done with it.
+	 * Tiles of cancelled frame must not be read after calculation was cancelled.</p>
 	 * @author gorsicleo
 	 */
-	private static class FractalProducerParallelImpl implements IFractalProducer {
+	public static class FractalProducerParallelImpl implements IStreamingFractalProducer, AutoCloseable {
 		
 		private static final String CALCULATION_FINISHED_MESSAGE = "Racunanje gotovo. Idem obavijestiti promatraca tj. GUI!";
+		private static final String CALCULATION_CANCELLED_MESSAGE = "Racunanje prekinuto, rezultat se ne salje.";
 		private static final String CALCULATION_START_PRINT = "Zapocinjem izracun na kojem radi: %d dretvi, broj poslova je: %d";
+		private static final String ALLOCATION_PRINT = "Alocirano tijekom izracuna: %d kB";
 		private ComplexRootedPolynomial rootedPoly;
 		private int numberOfWorkers;
 		private int numberOfJobs;
+		private boolean specializeKernel;
+		/**iteration used for each pixel */
+		private IterationScheme scheme;
+		/**per-row cost of last frame, used for splitting next frame into tracks */
+		private RowCostModel costModel = new RowCostModel();
+		/**workers shared by all requests of this producer */
+		private RequestScheduler scheduler;
+		/**whether scheduler was created by this producer and is stopped when producer is closed */
+		private boolean ownsScheduler;
+		/**pool of result buffers, null if every frame gets new buffer */
+		private ShortBufferPool bufferPool;
+		/**expanded polynomial, created on first request */
+		private ComplexPolynomial f;
+		/**kernel for expanded polynomial, created on first request */
+		private INewtonKernel kernel;
+
+		/**Constructs new FractalProducer with given user entered roots and parallelization arguments.
+		 * Producer has its own preemptive scheduler, so newer request supersedes older ones.
+		 * Result buffers are not pooled, see {@link #forViewer(ComplexRootedPolynomial, int[], IterationScheme, boolean)}.
+		 * @param roots
+		 * @param args
+		 * @param specializeKernel whether kernel is generated for polynomial, see {@link NewtonKernelGenerator}
+		 */
+		public FractalProducerParallelImpl(ComplexRootedPolynomial roots, int[] args, boolean specializeKernel) {
+			this(roots, args, IterationScheme.NEWTON, specializeKernel);
+		}
 
-		/**Constructs new FractalProducer with given user entered roots and parallelization arguments
+		/**Constructs new FractalProducer that uses given iteration scheme, see
+		 * {@link #FractalProducerParallelImpl(ComplexRootedPolynomial, int[], boolean)}.
 		 * @param roots
 		 * @param args
+		 * @param scheme iteration used for each pixel
+		 * @param specializeKernel whether kernel is generated for polynomial, see {@link NewtonKernelGenerator}
 		 */
-		public FractalProducerParallelImpl(ComplexRootedPolynomial roots, int[] args) {
+		public FractalProducerParallelImpl(ComplexRootedPolynomial roots, int[] args, IterationScheme scheme,
+				boolean specializeKernel) {
+			this(roots, args[1], scheme, specializeKernel, new RequestScheduler(args[0], true), null);
+			ownsScheduler = true;
+		}
+
+		/**Creates producer for {@link FractalViewer} that pools result buffers. Observer may use delivered buffer
+		 * only while {@link IFractalResultObserver#acceptResult(short[], short, long)} runs and on tasks it queues on
+		 * Swing event dispatch thread meanwhile, as viewer does: buffer is returned to pool by task queued on event
+		 * dispatch thread after that call, see {@link FullFrameObserverAdapter#FullFrameObserverAdapter(IFractalResultObserver, ShortBufferPool)}.
+		 * Other observers must use producer without pool.
+		 * @param roots user entered polynomial
+		 * @param args parallelization arguments (numberOfWorkers, numberOfTracks)
+		 * @param scheme iteration used for each pixel
+		 * @param specializeKernel whether kernel is generated for polynomial, see {@link NewtonKernelGenerator}
+		 * @return producer with its own preemptive scheduler and pool of result buffers
+		 */
+		public static FractalProducerParallelImpl forViewer(ComplexRootedPolynomial roots, int[] args,
+				IterationScheme scheme, boolean specializeKernel) {
+			FractalProducerParallelImpl producer = new FractalProducerParallelImpl(roots, args[1], scheme,
+					specializeKernel, new RequestScheduler(args[0], true), new ShortBufferPool(POOLED_FRAMES));
+			producer.ownsScheduler = true;
+			return producer;
+		}
+
+		/**Constructs new FractalProducer that runs its jobs on given scheduler
+		 * @param roots
+		 * @param numberOfJobs number of jobs for each frame
+		 * @param specializeKernel whether kernel is generated for polynomial, see {@link NewtonKernelGenerator}
+		 * @param scheduler that runs jobs, possibly shared with other producers
+		 */
+		public FractalProducerParallelImpl(ComplexRootedPolynomial roots, int numberOfJobs, boolean specializeKernel,
+				RequestScheduler scheduler) {
+			this(roots, numberOfJobs, IterationScheme.NEWTON, specializeKernel, scheduler, null);
+		}
+
+		/**Constructs new FractalProducer that runs its jobs on given scheduler and takes result buffers from pool
+		 * @param roots
+		 * @param numberOfJobs number of jobs for each frame
+		 * @param scheme iteration used for each pixel
+		 * @param specializeKernel whether kernel is generated for polynomial, see {@link NewtonKernelGenerator}
+		 * @param scheduler that runs jobs, possibly shared with other producers
+		 * @param bufferPool pool of result buffers, null if every frame gets new buffer
+		 */
+		public FractalProducerParallelImpl(ComplexRootedPolynomial roots, int numberOfJobs, IterationScheme scheme,
+				boolean specializeKernel, RequestScheduler scheduler, ShortBufferPool bufferPool) {
 			rootedPoly = roots;
-			numberOfWorkers = args[0];
-			numberOfJobs = args[1];
+			this.numberOfJobs = numberOfJobs;
+			this.scheme = scheme;
+			this.specializeKernel = specializeKernel;
+			this.scheduler = scheduler;
+			this.numberOfWorkers = scheduler.getNumberOfWorkers();
+			this.bufferPool = bufferPool;
+		}
+
+		/**Stops worker threads if producer created its own scheduler, shared scheduler is left running*/
+		@Override
+		public void close() {
+			if (ownsScheduler) {
+				scheduler.shutdown();
+			}
+		}
+
+		/**Returns pool that result buffers are taken from, or null if they are not pooled*/
+		public ShortBufferPool getBufferPool() {
+			return bufferPool;
 		}
 
+		/**Delivers finished frame to observer. If buffers are pooled, observer is expected to consume data on
+		 * Swing event dispatch thread, as viewer does, and buffer is returned to pool after that.*/
 		@Override
 		public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
 				long requestNo, IFractalResultObserver observer, AtomicBoolean cancel) {
+			produce(reMin, reMax, imMin, imMax, width, height, requestNo,
+					new FullFrameObserverAdapter(observer, bufferPool), cancel);
+		}
+
+		@Override
+		public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
+				long requestNo, IFractalTileObserver observer, AtomicBoolean cancel) {
 			
 			System.out.println(String.format(CALCULATION_START_PRINT, numberOfWorkers, numberOfJobs));
 			
+			long allocatedBefore = AllocationMeter.allocatedBytes();
 			int iteartions = 16 * 16 * 16;
-			short[] data = new short[width * height];
-			final int tracks = numberOfJobs;
-			int yPerTrack = height / tracks;
-			ComplexPolynomial f = rootedPoly.toComplexPolynom();
-
-			final BlockingQueue<CalculationJob> queue = new LinkedBlockingQueue<>();
-
-			Thread[] workers = createAndStartWorkers(queue);
-
-			createJobForEachWorker(reMin, reMax, imMin, imMax, width, height, cancel, iteartions, data, tracks,
-					yPerTrack, queue);
-			
-			putToQueue(queue, workers);
-
-			waitForAllWorkersToFinish(workers);
+			short[] data = bufferPool == null ? new short[width * height] : bufferPool.acquire(width * height);
+			// producer accepts viewport with no area, cost model only compares viewports that have one
+			Viewport viewport = reMin < reMax && imMin < imMax ? new Viewport(reMin, reMax, imMin, imMax) : null;
+			int[] trackBounds = viewport == null ? RowCostModel.equalPartition(height, numberOfJobs)
+					: costModel.partition(viewport, height, numberOfJobs);
+			long[] rowCost = new long[height];
+			INewtonKernel kernel = kernel();
+			short order = (short) (f.order() + 1);
+
+			RequestScheduler.Request request = scheduler.begin(requestNo, cancel);
+
+			createJobForEachWorker(reMin, reMax, imMin, imMax, width, height, request.getCancel(), iteartions, data,
+					trackBounds, request, kernel, rowCost, new TileForwarder(observer, cancel), order, requestNo);
+
+			try {
+				request.await();
+			} catch (RuntimeException e) {
+				release(data);
+				throw e;
+			}
 			
+			if (request.getCancel().get()) {
+				System.out.println(CALCULATION_CANCELLED_MESSAGE);
+				release(data);
+				return;
+			}
+			if (viewport != null) {
+				costModel.update(viewport, rowCost);
+			}
 			System.out.println(CALCULATION_FINISHED_MESSAGE);
+			if (allocatedBefore >= 0) {
+				System.out.println(String.format(ALLOCATION_PRINT,
+						(AllocationMeter.allocatedBytes() - allocatedBefore) / 1024));
+			}
 
-			observer.acceptResult(data, (short) (f.order() + 1), requestNo);
+			if (!request.deliver(() -> observer.frameFinished(data, order, requestNo))) {
+				release(data);
+			}
 
 		}
 
-		/**Joins all workers
-		 * @param workers to be joined
-		 */
-		private void waitForAllWorkersToFinish(Thread[] workers) {
-			for (int i = 0; i < workers.length; i++) {
-				while (true) {
-					try {
-						workers[i].join();
-						break;
-					} catch (InterruptedException e) {
-					}
-				}
+		/**Forwards tiles to observer only while frame is not cancelled by caller. Jobs learn about cancellation
+		 * from caller only when request forwards it, so without this check tiles calculated meanwhile would still
+		 * be delivered after caller has cancelled frame.*/
+		private static class TileForwarder implements IFractalTileObserver {
+			private IFractalTileObserver observer;
+			private AtomicBoolean cancel;
+
+			private TileForwarder(IFractalTileObserver observer, AtomicBoolean cancel) {
+				this.observer = observer;
+				this.cancel = cancel;
 			}
-		}
 
-		/**Puts job to blocking queue for each worker
-		 * @param queue
-		 * @param workers
-		 */
-		private void putToQueue(final BlockingQueue<CalculationJob> queue, Thread[] workers) {
-			for (int i = 0; i < workers.length; i++) {
-				while (true) {
-					try {
-						queue.put(CalculationJob.NO_JOB);
-						break;
-					} catch (InterruptedException e) {
-					}
+			@Override
+			public void acceptTile(short[] data, int width, int xMin, int yMin, int xMax, int yMax, short order,
+					long requestNo) {
+				if (!cancel.get()) {
+					observer.acceptTile(data, width, xMin, yMin, xMax, yMax, order, requestNo);
 				}
 			}
+
+			@Override
+			public void frameFinished(short[] data, short order, long requestNo) {
+				observer.frameFinished(data, order, requestNo);
+			}
 		}
 
-		/**Constructs new {@link CalculationJob} and puts job to queue*/
-		private void createJobForEachWorker(double reMin, double reMax, double imMin, double imMax, int width,
-				int height, AtomicBoolean cancel, int iteartions, short[] data, final int tracks, int yPerTrack,
-				final BlockingQueue<CalculationJob> queue) {
-			
-			for (int i = 0; i < tracks; i++) {
-				int yMin = i * yPerTrack;
-				int yMax = (i + 1) * yPerTrack - 1;
-				if (i == tracks - 1) {
-					yMax = height - 1;
-				}
-				CalculationJob job = new CalculationJob(reMin, reMax, imMin, imMax, width, height, yMin, yMax, iteartions,
-						data, cancel, rootedPoly);
-				while (true) {
-					try {
-						queue.put(job);
-						break;
-					} catch (InterruptedException e) {
-					}
-				}
+		/**Returns kernel for expanded polynomial, creating it on first call*/
+		private synchronized INewtonKernel kernel() {
+			if (kernel == null) {
+				f = rootedPoly.toComplexPolynom();
+				kernel = NewtonKernels.create(f, scheme, new RootDisks(rootedPoly), specializeKernel);
 			}
+			return kernel;
 		}
 
-		/**Creates array of workers and job is given to each one of them.*/
-		private Thread[] createAndStartWorkers(final BlockingQueue<CalculationJob> queue) {
-			
-			Thread[] workers = new Thread[numberOfWorkers];
-			
-			for (int i = 0; i < workers.length; i++) {
-				workers[i] = new Thread(new Runnable() {
-					@Override
-					public void run() {
-						while (true) {
-							CalculationJob p = null;
-							try {
-								p = queue.take();
-								if (p == CalculationJob.NO_JOB)
-									break;
-							} catch (InterruptedException e) {
-								continue;
-							}
-							p.run();
-						}
-					}
-				});
+		private void release(short[] data) {
+			if (bufferPool != null) {
+				bufferPool.release(data);
 			}
+		}
+
+		/**Constructs new {@link CalculationJob} for each track and submits it to request.
+		 * Track i covers rows from trackBounds[i] to trackBounds[i+1] - 1, see {@link RowCostModel#partition}.*/
+		private void createJobForEachWorker(double reMin, double reMax, double imMin, double imMax, int width,
+				int height, AtomicBoolean cancel, int iteartions, short[] data, int[] trackBounds,
+				RequestScheduler.Request request, INewtonKernel kernel, long[] rowCost,
+				IFractalTileObserver observer, short order, long requestNo) {
 			
-			for (int i = 0; i < workers.length; i++) {
-				workers[i].start();
+			for (int i = 0; i < trackBounds.length - 1; i++) {
+				int yMin = trackBounds[i];
+				int yMax = trackBounds[i + 1] - 1;
+				request.submit(new CalculationJob(reMin, reMax, imMin, imMax, width, height, yMin, yMax, iteartions,
+						data, cancel, rootedPoly, kernel, rowCost, observer, order, requestNo));
 			}
-			return workers;
 		}
 
 		
@@ -230,6 +356,47 @@ public class NewtonParallel {
 	}
 
 	
+	/**Returns value of console argument that starts with given name, such as <code>--size=</code>
+	 * @param args console arguments
+	 * @param name of argument, including '='
+	 * @param defaultValue returned if there is no such argument
+	 * @return text after name of first such argument, or default value
+	 */
+	public static String argument(String[] args, String name, String defaultValue) {
+		for (String arg : args) {
+			if (arg.startsWith(name)) {
+				return arg.substring(name.length());
+			}
+		}
+		return defaultValue;
+	}
+
+	/**Waits until task is done. Waiting is not stopped by interrupt, because task may still be writing
+	 * into arrays of caller; interrupt flag of thread is set again once task is done.
+	 * @param task to wait for
+	 * @param failureMessage message of exception thrown if task failed
+	 * @throws IllegalStateException if task threw exception, which is its cause
+	 */
+	public static void waitFor(Future<?> task, String failureMessage) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					task.get();
+					return;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(failureMessage, e.getCause());
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 	private static int handleNumberOfTracks(String[] args) {
 
 		for (int i = 0; i < args.length; i++) {
@@ -267,36 +434,57 @@ public class NewtonParallel {
 	}
 
 	public static void main(String[] args) {
-		FractalViewer.show(new FractalProducerParallelImpl(Newton.inputRoots(), parseArgs(args)));
+		IterationScheme scheme = IterationScheme.NEWTON;
+		for (String arg : args) {
+			if (arg.startsWith(METHOD_ARGUMENT)) {
+				scheme = IterationScheme.parse(arg.substring(METHOD_ARGUMENT.length()));
+			}
+		}
+		FractalViewer.show(FractalProducerParallelImpl.forViewer(Newton.inputRoots(), parseArgs(args), scheme,
+				hasArgument(args, KERNEL_ARGUMENT + GENERATED_KERNEL)));
+	}
+
+	private static boolean hasArgument(String[] args, String argument) {
+		for (String arg : args) {
+			if (arg.equals(argument))
+				return true;
+		}
+		return false;
 	}
 
 	/**Method takes in parameters for display width and height and edges of complex plane (reMin, reMax, imMin, imMax)
-	 * and calculates part of fractal.
+	 * and calculates part of fractal. Polynomial is expanded and convergence disks are computed on each call,
+	 * callers that calculate many parts should create kernel once and use {@link #calculate(double, double, double, double, int, int, int, int, int, short[], AtomicBoolean, ComplexRootedPolynomial, INewtonKernel, long[])}.
 	 */
 	public static void calculate(double reMin, double reMax, double imMin, double imMax, int width, int height, int m,
 			int yMin, int yMax, short[] data, AtomicBoolean cancel, ComplexRootedPolynomial rootedPoly) {
+		calculate(reMin, reMax, imMin, imMax, width, height, m, yMin, yMax, data, cancel, rootedPoly,
+				new HornerNewtonKernel(rootedPoly.toComplexPolynom(), new RootDisks(rootedPoly)), null);
+	}
 
-		Complex c;
-		Complex zn;
-		Complex znOld;
-		ComplexPolynomial f = rootedPoly.toComplexPolynom();
+	/**Method takes in parameters for display width and height and edges of complex plane (reMin, reMax, imMin, imMax)
+	 * and calculates part of fractal using kernel created for expanded polynomial.
+	 * If <code>rowCost</code> is not null, number of iterations for each calculated row is stored in it.
+	 */
+	public static void calculate(double reMin, double reMax, double imMin, double imMax, int width, int height, int m,
+			int yMin, int yMax, short[] data, AtomicBoolean cancel, ComplexRootedPolynomial rootedPoly,
+			INewtonKernel kernel, long[] rowCost) {
+
+		double[] z = SCRATCH.get();
 		int offset = yMin * width;
 		for (int y = yMin; y <= yMax; y++) {
 			if(cancel.get()) break;
+			double imaginary = Newton.mapToImaginary(y, height, imMin, imMax);
+			long iterations = 0;
 			for (int x = 0; x < width; x++) {
-
-				c = Newton.mapToComplexPlain(x, y, 0, width, 0, height, reMin, reMax, imMin, imMax);
-				zn = c;
-				int iter = 0;
-				do {
-					znOld = zn;
-					zn = zn.sub(f.apply(zn).divide(f.derive().apply(zn)));
-					iter++;
-				} while (iter < m && zn.sub(znOld).module() > 0.001);
-				int index = rootedPoly.indexOfClosestRootFor(zn, 0.002);
+				iterations += kernel.iterate(Newton.mapToReal(x, width, reMin, reMax), imaginary, m, z);
+				int index = rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD);
 				data[offset] = (short) (index + 1);
 				offset++;
 			}
+			if (rowCost != null) {
+				rowCost[y] = iterations;
+			}
 		}
 
 	}
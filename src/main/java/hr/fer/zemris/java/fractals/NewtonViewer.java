@@ -0,0 +1,35 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.java.fractals.viewer.FractalViewer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Shows fractal using render engine chosen on command line, or the fastest engine on this machine.
+ * Arguments: --engine=NAME (or --engine=auto, default), --calibration-ms=N (time budget of calibration)
+ * and parallelization arguments of {@link NewtonParallel}. With automatic choice, engines and number of
+ * tracks are measured by {@link EngineCalibrator} before viewer is shown.
+ * @author gorsicleo
+ *
+ */
+public class NewtonViewer {
+
+	private static final String ENGINE_ARGUMENT = "--engine=";
+	private static final String CALIBRATION_ARGUMENT = "--calibration-ms=";
+	private static final String AUTO_ENGINE = "auto";
+	private static final int CALIBRATION_SIZE = 256;
+
+	public static void main(String[] args) {
+		String engineName = NewtonParallel.argument(args, ENGINE_ARGUMENT, AUTO_ENGINE);
+		long budget = Long.parseLong(NewtonParallel.argument(args, CALIBRATION_ARGUMENT, "2000"));
+		int[] parallelization = NewtonParallel.parseArgs(args);
+
+		ComplexRootedPolynomial roots = Newton.inputRoots();
+		if (engineName.equals(AUTO_ENGINE)) {
+			EngineCalibrator.Configuration configuration = new EngineCalibrator(CALIBRATION_SIZE, CALIBRATION_SIZE,
+					budget).calibrate(roots, RenderEngines.load(), parallelization[0]);
+			FractalViewer.show(configuration.createProducer(roots));
+		} else {
+			FractalViewer.show(RenderEngines.find(engineName).createProducer(roots, parallelization[0],
+					parallelization[1]));
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package hr.fer.zemris.java.fractals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Renders zoom animation along path of viewports.
+ * Frames are pipelined: workers compute tracks of next frame while previous frame is still finishing,
+ * and finished frames are encoded and written in order on separate writer thread.
+ * At most <code>framesInFlight</code> frames exist at once, so memory stays bounded
+ * when writer is slower than workers, and frame buffers are reused through {@link ShortBufferPool}.
+ * @author gorsicleo
+ *
+ */
+public class PipelinedAnimationRenderer {
+
+	private static final int ITERATIONS = 16 * 16 * 16;
+
+	private ComplexRootedPolynomial rootedPoly;
+	private int numberOfWorkers;
+	private int numberOfTracks;
+	private int framesInFlight;
+
+	/**Model of frame that is being calculated*/
+	private static class Frame {
+		private int frameNo;
+		private short[] data;
+		/**number of tracks that are not calculated yet */
+		private AtomicInteger remainingTracks;
+
+		private Frame(int frameNo, short[] data, int tracks) {
+			this.frameNo = frameNo;
+			this.data = data;
+			this.remainingTracks = new AtomicInteger(tracks);
+		}
+	}
+
+	/**Creates new renderer
+	 * @param roots user entered polynomial
+	 * @param numberOfWorkers number of calculation threads
+	 * @param numberOfTracks number of jobs per frame
+	 * @param framesInFlight maximum number of frames that are calculated or waiting to be written
+	 */
+	public PipelinedAnimationRenderer(ComplexRootedPolynomial roots, int numberOfWorkers, int numberOfTracks,
+			int framesInFlight) {
+		if (numberOfWorkers < 1 || numberOfTracks < 1 || framesInFlight < 1) {
+			throw new IllegalArgumentException("Workers, tracks and frames in flight must be positive.");
+		}
+		this.rootedPoly = roots;
+		this.numberOfWorkers = numberOfWorkers;
+		this.numberOfTracks = numberOfTracks;
+		this.framesInFlight = framesInFlight;
+	}
+
+	/**Calculates frame for each viewport and gives it to writer in order of viewports.
+	 * @param path viewport for each frame
+	 * @param width of frame
+	 * @param height of frame
+	 * @param writer consumer of finished frames
+	 * @return sustained frames per second, measured between first and last written frame
+	 * @throws UncheckedIOException if writer fails, remaining frames are cancelled
+	 * @throws RuntimeException that calculation of track or writer threw, remaining frames are cancelled
+	 */
+	public double render(List<Viewport> path, int width, int height, IFrameWriter writer) {
+		ComplexPolynomial f = rootedPoly.toComplexPolynom();
+		INewtonKernel kernel = new HornerNewtonKernel(f, new RootDisks(rootedPoly));
+		short order = (short) (f.order() + 1);
+		int tracks = Math.min(numberOfTracks, height);
+		Semaphore freeFrames = new Semaphore(framesInFlight);
+		BlockingQueue<Frame> finished = new LinkedBlockingQueue<>();
+		AtomicBoolean cancel = new AtomicBoolean(false);
+		ShortBufferPool buffers = new ShortBufferPool(framesInFlight);
+
+		WriterStage writerStage = new WriterStage(path.size(), width, height, order, writer, finished, freeFrames,
+				cancel, buffers);
+		Thread writerThread = new Thread(writerStage, "frame-writer");
+		writerThread.start();
+
+		ExecutorService workers = Executors.newFixedThreadPool(numberOfWorkers);
+		try {
+			for (int frameNo = 0; frameNo < path.size(); frameNo++) {
+				freeFrames.acquireUninterruptibly();
+				if (cancel.get())
+					break;
+				submitFrame(new Frame(frameNo, buffers.acquire(width * height), tracks), path.get(frameNo), width, height,
+						workers, finished, cancel, kernel, writerStage);
+			}
+			waitFor(writerThread);
+		} finally {
+			workers.shutdown();
+		}
+
+		Exception failure = writerStage.failure;
+		if (failure instanceof IOException) {
+			throw new UncheckedIOException((IOException) failure);
+		}
+		if (failure != null) {
+			throw (RuntimeException) failure;
+		}
+		return writerStage.sustainedFramesPerSecond();
+	}
+
+	/**Splits frame into tracks and submits job for each track. Last finished track hands frame to writer,
+	 * also when some track failed, so writer never waits for frame that will not come.*/
+	private void submitFrame(Frame frame, Viewport viewport, int width, int height, ExecutorService workers,
+			BlockingQueue<Frame> finished, AtomicBoolean cancel, INewtonKernel kernel, WriterStage writerStage) {
+		int tracks = frame.remainingTracks.get();
+		int yPerTrack = height / tracks;
+		for (int i = 0; i < tracks; i++) {
+			int yMin = i * yPerTrack;
+			int yMax = i == tracks - 1 ? height - 1 : (i + 1) * yPerTrack - 1;
+			workers.execute(() -> {
+				try {
+					NewtonParallel.calculate(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(),
+							viewport.getImMax(), width, height, ITERATIONS, yMin, yMax, frame.data, cancel, rootedPoly,
+							kernel, null);
+				} catch (RuntimeException e) {
+					writerStage.fail(e);
+				} finally {
+					if (frame.remainingTracks.decrementAndGet() == 0) {
+						finished.add(frame);
+					}
+				}
+			});
+		}
+	}
+
+	private static void waitFor(Thread thread) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**Writes finished frames in order. Frames may finish out of order, so they wait in pending map
+	 * until all previous frames are written.*/
+	private static class WriterStage implements Runnable {
+
+		private int numberOfFrames;
+		private int width;
+		private int height;
+		private short order;
+		private IFrameWriter writer;
+		private BlockingQueue<Frame> finished;
+		private Semaphore freeFrames;
+		private AtomicBoolean cancel;
+		/**pool that written frames are returned to */
+		private ShortBufferPool buffers;
+
+		/**first failure of worker or writer */
+		private volatile Exception failure;
+		private long firstWritten;
+		private long lastWritten;
+		private int written;
+
+		private WriterStage(int numberOfFrames, int width, int height, short order, IFrameWriter writer,
+				BlockingQueue<Frame> finished, Semaphore freeFrames, AtomicBoolean cancel, ShortBufferPool buffers) {
+			this.numberOfFrames = numberOfFrames;
+			this.width = width;
+			this.height = height;
+			this.order = order;
+			this.writer = writer;
+			this.finished = finished;
+			this.freeFrames = freeFrames;
+			this.cancel = cancel;
+			this.buffers = buffers;
+		}
+
+		@Override
+		public void run() {
+			Map<Integer, Frame> pending = new HashMap<>();
+			int next = 0;
+			while (next < numberOfFrames && !cancel.get()) {
+				Frame frame;
+				try {
+					frame = finished.poll(100, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					continue;
+				}
+				if (frame == null)
+					continue;
+				pending.put(frame.frameNo, frame);
+
+				while (!cancel.get() && (frame = pending.remove(next)) != null) {
+					try {
+						writer.writeFrame(next, frame.data, width, height, order);
+					} catch (IOException | RuntimeException e) {
+						fail(e);
+						return;
+					}
+					buffers.release(frame.data);
+					recordWritten();
+					next++;
+					freeFrames.release();
+				}
+			}
+		}
+
+		/**Records first failure, cancels remaining frames and lets renderer stop waiting for free frames*/
+		private synchronized void fail(Exception e) {
+			if (failure != null)
+				return;
+			failure = e;
+			cancel.set(true);
+			freeFrames.release(numberOfFrames);
+		}
+
+		private void recordWritten() {
+			lastWritten = System.nanoTime();
+			if (written == 0) {
+				firstWritten = lastWritten;
+			}
+			written++;
+			if (written % 10 == 0) {
+				System.out.println(String.format("Zapisano %d/%d frameova, %.2f fps", written, numberOfFrames,
+						sustainedFramesPerSecond()));
+			}
+		}
+
+		private double sustainedFramesPerSecond() {
+			if (written < 2)
+				return 0;
+			return (written - 1) / ((lastWritten - firstWritten) / 1e9);
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package hr.fer.zemris.java.fractals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+/**Writes each frame as PNG image named frame-NNNNN.png into given directory.
+ * Pixels that did not converge are black, each root gets its own hue.
+ * @author gorsicleo
+ *
+ */
+public class PngFrameWriter implements IFrameWriter {
+
+	private Path directory;
+
+	/**Creates writer that stores frames into given directory, directory is created if needed*/
+	public PngFrameWriter(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+	}
+
+	@Override
+	public void writeFrame(int frameNo, short[] data, int width, int height, short order) throws IOException {
+		int[] palette = createPalette(order);
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				image.setRGB(x, y, palette[data[offset]]);
+				offset++;
+			}
+		}
+		ImageIO.write(image, "png", directory.resolve(String.format("frame-%05d.png", frameNo)).toFile());
+	}
+
+	/**Writes antialiased frame, colors of boundary pixels are mixed by coverage of each root*/
+	public void writeFrame(int frameNo, CoverageFrame frame) throws IOException {
+		BufferedImage image = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_RGB);
+		image.setRGB(0, 0, frame.getWidth(), frame.getHeight(), frame.toRgb(createPalette(frame.getOrder())), 0,
+				frame.getWidth());
+		ImageIO.write(image, "png", directory.resolve(String.format("frame-%05d.png", frameNo)).toFile());
+	}
+
+	/**Creates color for each root index, index 0 (no root) is black*/
+	static int[] createPalette(short order) {
+		int[] palette = new int[Math.max(order, 1)];
+		for (int i = 1; i < palette.length; i++) {
+			palette[i] = Color.HSBtoRGB((i - 1) / (float) (palette.length - 1), 0.8f, 0.9f);
+		}
+		return palette;
+	}
+
+}
@@ -0,0 +1,49 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**Finds render engines registered through {@link ServiceLoader}.
+ * @author gorsicleo
+ *
+ */
+public class RenderEngines {
+
+	private RenderEngines() {
+	}
+
+	/**Returns all registered engines*/
+	public static List<IRenderEngine> load() {
+		List<IRenderEngine> engines = new ArrayList<>();
+		for (IRenderEngine engine : ServiceLoader.load(IRenderEngine.class)) {
+			engines.add(engine);
+		}
+		return engines;
+	}
+
+	/**Returns registered engine with given name
+	 * @throws IllegalArgumentException if there is no such engine
+	 */
+	public static IRenderEngine find(String name) {
+		List<String> names = new ArrayList<>();
+		for (IRenderEngine engine : load()) {
+			if (engine.getName().equals(name)) {
+				return engine;
+			}
+			names.add(engine.getName());
+		}
+		throw new IllegalArgumentException("Unknown engine: " + name + ", available engines are " + names + ".");
+	}
+
+	/**Closes producer if it owns resources*/
+	static void close(Object producer) {
+		if (producer instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) producer).close();
+			} catch (Exception e) {
+				System.out.println("Zatvaranje producera nije uspjelo: " + e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**Pool of worker threads shared by all requests of one producer.
+ * <p>In preemptive mode tiles of request with biggest requestNo are calculated first. When request with
+ * strictly bigger requestNo begins, all older requests are superseded: their queued tiles are dropped, running
+ * tiles stop at next row and their results are not delivered. Requests with equal requestNo do not supersede
+ * each other. Result of request is delivered only if no newer request had begun when delivery started.</p>
+ * <p>In non-preemptive mode requests are independent and tiles are calculated in order of submission.</p>
+ * <p>If tile throws exception or error, remaining tiles of its request are dropped and {@link Request#await()}
+ * throws, so result of failed request is never delivered. Worker that ran the tile keeps working.</p>
+ * @author gorsicleo
+ *
+ */
+public class RequestScheduler {
+
+	private final int numberOfWorkers;
+	private final boolean preemptive;
+	private final PriorityBlockingQueue<Task> queue;
+	private final AtomicLong sequence = new AtomicLong();
+	/**biggest requestNo of requests that have begun, guarded by this */
+	private long newestNo = Long.MIN_VALUE;
+	/**requests with requestNo equal to newestNo that are not awaited yet, guarded by this */
+	private List<Request> newest = new ArrayList<>();
+	private final List<Thread> workers = new ArrayList<>();
+	private volatile boolean shutdown;
+
+	/**Tile of request waiting for calculation*/
+	private static class Task {
+		private Request request;
+		private long sequence;
+		private Runnable work;
+
+		private Task(Request request, long sequence, Runnable work) {
+			this.request = request;
+			this.sequence = sequence;
+			this.work = work;
+		}
+	}
+
+	/**Calculation of one frame. Tiles are submitted with {@link #submit(Runnable)}*/
+	public class Request {
+		private final long requestNo;
+		private final AtomicBoolean externalCancel;
+		/**set when request is cancelled or superseded, tiles should check it to stop early */
+		private final AtomicBoolean cancel = new AtomicBoolean(false);
+		/**number of submitted tiles that are not finished yet, guarded by this */
+		private int pending;
+		/**first exception or error thrown by tile of this request, guarded by this */
+		private Throwable failure;
+
+		private Request(long requestNo, AtomicBoolean externalCancel) {
+			this.requestNo = requestNo;
+			this.externalCancel = externalCancel;
+		}
+
+		/**Returns flag that is set when this request is cancelled or superseded*/
+		public AtomicBoolean getCancel() {
+			return cancel;
+		}
+
+		/**Queues tile of this request for calculation*/
+		public void submit(Runnable tile) {
+			synchronized (this) {
+				pending++;
+			}
+			Task task = new Task(this, sequence.getAndIncrement(), tile);
+			queue.put(task);
+			if (shutdown && queue.remove(task)) {
+				cancel.set(true);
+				finished();
+			}
+		}
+
+		/**Waits until all submitted tiles are calculated or dropped. Waiting is not stopped by interrupt, because
+		 * running tiles still write into frame of caller; interrupt flag is set again once waiting ends.
+		 * Cancellation from outside is forwarded to tiles while waiting.
+		 * @throws IllegalStateException if some tile threw exception or error, which is its cause
+		 */
+		public void await() {
+			Throwable failure;
+			boolean interrupted = false;
+			while (true) {
+				synchronized (this) {
+					if (pending == 0) {
+						failure = this.failure;
+						break;
+					}
+					try {
+						wait(10);
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (externalCancel.get() && !cancel.get()) {
+					cancel();
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (RequestScheduler.this) {
+				newest.remove(this);
+			}
+			if (failure != null) {
+				throw new IllegalStateException("Tile calculation failed.", failure);
+			}
+		}
+
+		/**Runs delivery of result if this request was not cancelled, superseded or failed. Only the check is
+		 * done under lock of scheduler, delivery runs without it, so slow observer does not hold up other
+		 * requests; newer request may begin while result is being delivered.
+		 * @return true if result was delivered
+		 */
+		public boolean deliver(Runnable delivery) {
+			synchronized (RequestScheduler.this) {
+				if (cancel.get() || externalCancel.get() || preemptive && requestNo < newestNo)
+					return false;
+			}
+			delivery.run();
+			return true;
+		}
+
+		/**Sets cancel flag and drops queued tiles of this request*/
+		private void cancel() {
+			cancel.set(true);
+			List<Task> dropped = new ArrayList<>();
+			queue.removeIf(task -> task.request == this && dropped.add(task));
+			for (int i = 0; i < dropped.size(); i++) {
+				finished();
+			}
+		}
+
+		/**Records exception of tile and drops remaining tiles of this request*/
+		private void fail(Throwable e) {
+			synchronized (this) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+			cancel();
+		}
+
+		/**Marks one tile as finished*/
+		private synchronized void finished() {
+			pending--;
+			if (pending == 0) {
+				notifyAll();
+			}
+		}
+	}
+
+	/**Creates scheduler and starts its worker threads. Workers are daemon threads, so they do not keep JVM alive.
+	 * @param workers number of worker threads
+	 * @param preemptive whether newer requests supersede older ones
+	 */
+	public RequestScheduler(int workers, boolean preemptive) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Number of workers must be positive.");
+		}
+		this.numberOfWorkers = workers;
+		this.preemptive = preemptive;
+		this.queue = new PriorityBlockingQueue<>(64, (a, b) -> {
+			if (preemptive && a.request.requestNo != b.request.requestNo) {
+				return Long.compare(b.request.requestNo, a.request.requestNo);
+			}
+			return Long.compare(a.sequence, b.sequence);
+		});
+
+		for (int i = 0; i < workers; i++) {
+			Thread worker = new Thread(this::work, "fractal-worker-" + i);
+			worker.setDaemon(true);
+			worker.start();
+			this.workers.add(worker);
+		}
+	}
+
+	public int getNumberOfWorkers() {
+		return numberOfWorkers;
+	}
+
+	/**Begins new request. In preemptive mode all requests with smaller requestNo are superseded, and if
+	 * request with bigger requestNo has already begun, this one begins as superseded. Request with same
+	 * requestNo as newest requests supersedes none of them, so callers that share scheduler and all pass
+	 * same requestNo, such as 0, do not cancel each other.
+	 * @param requestNo number of request, newer requests have bigger numbers
+	 * @param cancel cancel flag given by caller
+	 * @return request to which tiles are submitted
+	 */
+	public synchronized Request begin(long requestNo, AtomicBoolean cancel) {
+		Request request = new Request(requestNo, cancel);
+		if (!preemptive)
+			return request;
+
+		if (newestNo > requestNo) {
+			request.cancel.set(true);
+			return request;
+		}
+		if (newestNo < requestNo) {
+			for (Request older : newest) {
+				older.cancel();
+			}
+			newest.clear();
+			newestNo = requestNo;
+		}
+		newest.add(request);
+		return request;
+	}
+
+	/**Stops worker threads. Tiles that are queued or submitted later are never calculated; they are dropped and
+	 * their requests cancelled, so requests that wait for them finish without delivering result.*/
+	public void shutdown() {
+		shutdown = true;
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+		List<Task> dropped = new ArrayList<>();
+		queue.drainTo(dropped);
+		for (Task task : dropped) {
+			task.request.cancel.set(true);
+			task.request.finished();
+		}
+	}
+
+	private void work() {
+		while (!shutdown) {
+			Task task;
+			try {
+				task = queue.take();
+			} catch (InterruptedException e) {
+				continue;
+			}
+			try {
+				if (!task.request.cancel.get()) {
+					task.work.run();
+				}
+			} catch (Throwable e) {
+				task.request.fail(e);
+			} finally {
+				task.request.finished();
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Disks around simple roots inside which Newton's iteration certainly converges to that root, see
+ * {@link ComplexRootedPolynomial#convergenceRadii()}. Kernel that enters a disk can stop and return
+ * the root itself, which is then classified exactly as fully converged point would be.
+ * Radii are halved, so rounding in expanded coefficients cannot move a point out of certified region.
+ * Disks hold only for Newton's iteration.
+ * @author gorsicleo
+ *
+ */
+public class RootDisks {
+
+	/**Part of certified radius that is used*/
+	private static final double SAFETY = 0.5;
+
+	/**real parts of roots with disk */
+	final double[] re;
+	/**imaginary parts of roots with disk */
+	final double[] im;
+	/**squared radius of each disk */
+	final double[] radiusSquared;
+	/**disks are searched only when squared step is smaller than this, since step that ends in a disk
+	 * is at most twice as long as biggest radius */
+	final double gateSquared;
+
+	/**Creates disks for simple roots of given polynomial*/
+	public RootDisks(ComplexRootedPolynomial rootedPoly) {
+		Complex[] roots = rootedPoly.getRoots();
+		double[] radii = rootedPoly.convergenceRadii();
+		List<Integer> simple = new ArrayList<>();
+		for (int i = 0; i < roots.length; i++) {
+			if (radii[i] > 0 && Double.isFinite(radii[i])) {
+				simple.add(i);
+			}
+		}
+
+		re = new double[simple.size()];
+		im = new double[simple.size()];
+		radiusSquared = new double[simple.size()];
+		double maxRadius = 0;
+		for (int k = 0; k < simple.size(); k++) {
+			int i = simple.get(k);
+			double radius = SAFETY * radii[i];
+			re[k] = roots[i].getReal();
+			im[k] = roots[i].getImaginary();
+			radiusSquared[k] = radius * radius;
+			maxRadius = Math.max(maxRadius, radius);
+		}
+		gateSquared = 4 * maxRadius * maxRadius;
+	}
+
+	/**Returns number of disks*/
+	public int size() {
+		return re.length;
+	}
+
+	/**Returns index of disk that contains point (zr + zi i), or -1 if there is none*/
+	public int find(double zr, double zi) {
+		for (int k = 0; k < re.length; k++) {
+			double dr = zr - re[k];
+			double di = zi - im[k];
+			if (dr * dr + di * di < radiusSquared[k]) {
+				return k;
+			}
+		}
+		return -1;
+	}
+}
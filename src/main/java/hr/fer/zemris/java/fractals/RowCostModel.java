@@ -0,0 +1,114 @@
+package hr.fer.zemris.java.fractals;
+
+/**Remembers how many iterations each row of last calculated frame took and uses it
+ * to split next frame into tracks of roughly equal cost. Consecutive frames usually look alike,
+ * so rows of new frame are mapped onto rows of last frame with the same imaginary part.
+ * If new viewport does not overlap enough with last one, costs are considered stale
+ * and frame is split into tracks with equal number of rows.
+ * @author gorsicleo
+ *
+ */
+public class RowCostModel {
+
+	/**Minimum ratio of intersection and union of two viewports for costs to be reused*/
+	public static final double MIN_OVERLAP = 0.5;
+
+	/**Costs of last frame, replaced as a whole so concurrent requests see consistent frame*/
+	private volatile Frame last;
+
+	/**Viewport and cost of each row of one frame*/
+	private static class Frame {
+		private Viewport viewport;
+		private long[] rowCost;
+
+		private Frame(Viewport viewport, long[] rowCost) {
+			this.viewport = viewport;
+			this.rowCost = rowCost;
+		}
+	}
+
+	/**Stores costs of calculated frame
+	 * @param viewport of calculated frame
+	 * @param rowCost number of iterations for each row of frame
+	 */
+	public void update(Viewport viewport, long[] rowCost) {
+		last = new Frame(viewport, rowCost.clone());
+	}
+
+	/**Splits rows of frame into tracks of roughly equal predicted cost
+	 * @param viewport of frame to be calculated
+	 * @param height of frame
+	 * @param tracks number of tracks, at most <code>height</code> tracks are created
+	 * @return array of track bounds, track i covers rows from bounds[i] to bounds[i+1] - 1
+	 */
+	public int[] partition(Viewport viewport, int height, int tracks) {
+		tracks = Math.max(1, Math.min(tracks, height));
+		Frame frame = last;
+		if (frame == null || overlap(frame.viewport, viewport) < MIN_OVERLAP) {
+			return equalPartition(height, tracks);
+		}
+
+		double[] cumulative = new double[height + 1];
+		for (int y = 0; y < height; y++) {
+			cumulative[y + 1] = cumulative[y] + predictCost(frame, viewport, height, y);
+		}
+
+		int[] bounds = new int[tracks + 1];
+		for (int i = 1; i < tracks; i++) {
+			double target = cumulative[height] * i / tracks;
+			// every track gets at least one row
+			int bound = bounds[i - 1] + 1;
+			while (bound < height - (tracks - i) && cumulative[bound] < target) {
+				bound++;
+			}
+			bounds[i] = bound;
+		}
+		bounds[tracks] = height;
+		return bounds;
+	}
+
+	/**Splits rows into tracks with equal number of rows, last track takes the remainder*/
+	public static int[] equalPartition(int height, int tracks) {
+		tracks = Math.max(1, Math.min(tracks, height));
+		int[] bounds = new int[tracks + 1];
+		int yPerTrack = height / tracks;
+		for (int i = 0; i < tracks; i++) {
+			bounds[i] = i * yPerTrack;
+		}
+		bounds[tracks] = height;
+		return bounds;
+	}
+
+	/**Cost of row y in new frame is cost of row of last frame with nearest imaginary part.
+	 * Rows outside of last frame get average cost. Minimum cost is 1 so empty rows still count.*/
+	private static double predictCost(Frame frame, Viewport viewport, int height, int y) {
+		long[] rowCost = frame.rowCost;
+		double imaginary = Newton.mapToImaginary(y, height, viewport.getImMin(), viewport.getImMax());
+		Viewport old = frame.viewport;
+		double position = (old.getImMax() - imaginary) / (old.getImMax() - old.getImMin()) * (rowCost.length - 1);
+		int oldY = (int) Math.round(position);
+		if (oldY < 0 || oldY >= rowCost.length) {
+			long total = 0;
+			for (long cost : rowCost) {
+				total += cost;
+			}
+			return Math.max(1, total / (double) rowCost.length);
+		}
+		return Math.max(1, rowCost[oldY]);
+	}
+
+	/**Returns ratio of intersection and union of two viewports*/
+	static double overlap(Viewport a, Viewport b) {
+		double re = Math.min(a.getReMax(), b.getReMax()) - Math.max(a.getReMin(), b.getReMin());
+		double im = Math.min(a.getImMax(), b.getImMax()) - Math.max(a.getImMin(), b.getImMin());
+		if (re <= 0 || im <= 0)
+			return 0;
+		double intersection = re * im;
+		double union = area(a) + area(b) - intersection;
+		return intersection / union;
+	}
+
+	private static double area(Viewport v) {
+		return (v.getReMax() - v.getReMin()) * (v.getImMax() - v.getImMin());
+	}
+}
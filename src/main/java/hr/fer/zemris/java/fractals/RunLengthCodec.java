@@ -0,0 +1,170 @@
+package hr.fer.zemris.java.fractals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**Compact format of root-index frames for storage and transfer. Frame is split into blocks of whole rows,
+ * each block is encoded independently with {@link RunLengthEncoder}, so blocks are encoded and decoded in
+ * parallel while frame is streamed.
+ * <p>Format, big endian: magic (int), width (int), height (int), order (short), rows per block (int),
+ * followed by blocks, each as number of bytes (int) and runs of block.</p>
+ * @author gorsicleo
+ *
+ */
+public class RunLengthCodec {
+
+	/**Media type of encoded frame*/
+	public static final String CONTENT_TYPE = "application/x-fractal-rle";
+	private static final int MAGIC = 0x4E524C45;
+	/**Number of pixels in block, rounded to whole rows*/
+	private static final int PIXELS_PER_BLOCK = 1 << 16;
+
+	/**Decoded frame*/
+	public static class Frame {
+		private int width;
+		private int height;
+		private short order;
+		private short[] data;
+
+		private Frame(int width, int height, short order, short[] data) {
+			this.width = width;
+			this.height = height;
+			this.order = order;
+			this.data = data;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		/**Returns number of roots + 1*/
+		public short getOrder() {
+			return order;
+		}
+
+		/**Returns root index of each pixel, row by row*/
+		public short[] getData() {
+			return data;
+		}
+	}
+
+	private RunLengthCodec() {
+	}
+
+	/**Encodes frame into byte array*/
+	public static byte[] encode(short[] data, int width, int height, short order) {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try {
+			write(os, data, width, height, order);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return os.toByteArray();
+	}
+
+	/**Decodes frame from byte array
+	 * @throws IOException if bytes are not valid frame
+	 */
+	public static Frame decode(byte[] bytes) throws IOException {
+		return read(new ByteArrayInputStream(bytes));
+	}
+
+	/**Encodes frame and writes it into stream. Blocks are encoded in parallel and written in order, with at
+	 * most two blocks per thread of common pool waiting to be written. Stream is not closed.*/
+	public static void write(OutputStream os, short[] data, int width, int height, short order) throws IOException {
+		if (data.length != width * height) {
+			throw new IllegalArgumentException("Data does not match frame size.");
+		}
+		int rowsPerBlock = rowsPerBlock(width);
+		DataOutputStream dos = new DataOutputStream(os);
+		dos.writeInt(MAGIC);
+		dos.writeInt(width);
+		dos.writeInt(height);
+		dos.writeShort(order);
+		dos.writeInt(rowsPerBlock);
+
+		int window = 2 * ForkJoinPool.getCommonPoolParallelism();
+		Deque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+		for (int y = 0; y < height; y += rowsPerBlock) {
+			int offset = y * width;
+			int length = Math.min(rowsPerBlock, height - y) * width;
+			pending.add(ForkJoinPool.commonPool().submit(() -> {
+				RunLengthEncoder encoder = new RunLengthEncoder();
+				encoder.addAll(data, offset, length);
+				return encoder.toByteArray();
+			}));
+			if (pending.size() >= window) {
+				writeBlock(dos, pending.poll().join());
+			}
+		}
+		while (!pending.isEmpty()) {
+			writeBlock(dos, pending.poll().join());
+		}
+		dos.flush();
+	}
+
+	private static void writeBlock(DataOutputStream dos, byte[] block) throws IOException {
+		dos.writeInt(block.length);
+		dos.write(block);
+	}
+
+	/**Reads and decodes frame from stream, blocks are decoded in parallel while next blocks are read.
+	 * Stream is not closed.
+	 * @throws IOException if stream cannot be read or does not hold valid frame
+	 */
+	public static Frame read(InputStream is) throws IOException {
+		DataInputStream dis = new DataInputStream(is);
+		if (dis.readInt() != MAGIC) {
+			throw new IOException("Stream does not hold run-length encoded frame.");
+		}
+		int width = dis.readInt();
+		int height = dis.readInt();
+		short order = dis.readShort();
+		int rowsPerBlock = dis.readInt();
+		if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE - 8 || rowsPerBlock <= 0) {
+			throw new IOException("Frame has invalid size.");
+		}
+
+		short[] data = new short[width * height];
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int y = 0; y < height; y += rowsPerBlock) {
+			int offset = y * width;
+			int pixels = Math.min(rowsPerBlock, height - y) * width;
+			int length = dis.readInt();
+			if (length < 0 || length > 10L * pixels) {
+				throw new IOException("Block has invalid length.");
+			}
+			byte[] block = new byte[length];
+			dis.readFully(block);
+			tasks.add(ForkJoinPool.commonPool().submit(() -> RunLengthEncoder.decode(block, 0, length, data, offset, pixels)));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			try {
+				task.join();
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Frame is corrupted: " + e.getMessage(), e);
+			}
+		}
+		return new Frame(width, height, order, data);
+	}
+
+	/**Returns number of rows of block for frames of given width*/
+	static int rowsPerBlock(int width) {
+		return Math.max(1, PIXELS_PER_BLOCK / width);
+	}
+}
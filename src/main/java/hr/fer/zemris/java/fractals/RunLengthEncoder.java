@@ -0,0 +1,137 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.Arrays;
+
+/**Encodes root indexes as runs of equal values. Each run is written as value and length, both as unsigned
+ * variable length integers (7 bits per byte, highest bit set on all bytes but last), so runs of basin interiors
+ * take few bytes regardless of their length. Renderers can give runs directly with {@link #run(short, int)},
+ * or pixel by pixel with {@link #add(short)}; neighbouring runs of same value are merged.
+ * @author gorsicleo
+ *
+ */
+public class RunLengthEncoder {
+
+	private byte[] bytes = new byte[64];
+	private int length;
+	/**value and length of run that is not written yet */
+	private short value;
+	private int count;
+
+	/**Adds run of <code>count</code> pixels with given value*/
+	public void run(short value, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Run length must not be negative.");
+		}
+		if (count == 0)
+			return;
+		if (this.count > 0 && this.value == value) {
+			this.count += count;
+			return;
+		}
+		flush();
+		this.value = value;
+		this.count = count;
+	}
+
+	/**Adds single pixel*/
+	public void add(short value) {
+		run(value, 1);
+	}
+
+	/**Adds <code>length</code> pixels of data starting at offset*/
+	public void addAll(short[] data, int offset, int length) {
+		int end = offset + length;
+		for (int start = offset; start < end;) {
+			int runEnd = start + 1;
+			while (runEnd < end && data[runEnd] == data[start]) {
+				runEnd++;
+			}
+			run(data[start], runEnd - start);
+			start = runEnd;
+		}
+	}
+
+	/**Returns encoded runs*/
+	public byte[] toByteArray() {
+		flush();
+		return Arrays.copyOf(bytes, length);
+	}
+
+	/**Returns number of bytes of encoded runs*/
+	public int length() {
+		flush();
+		return length;
+	}
+
+	/**Removes all runs, so encoder can be used again*/
+	public void reset() {
+		length = 0;
+		count = 0;
+	}
+
+	private void flush() {
+		if (count == 0)
+			return;
+		writeVarint(value & 0xFFFF);
+		writeVarint(count);
+		count = 0;
+	}
+
+	private void writeVarint(int number) {
+		if (length + 5 > bytes.length) {
+			bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+		}
+		while ((number & ~0x7F) != 0) {
+			bytes[length++] = (byte) (number & 0x7F | 0x80);
+			number >>>= 7;
+		}
+		bytes[length++] = (byte) number;
+	}
+
+	/**Decodes runs into target array
+	 * @param bytes encoded runs
+	 * @param offset of first byte of runs
+	 * @param length number of bytes of runs
+	 * @param target array that receives pixels
+	 * @param targetOffset index of first pixel in target
+	 * @param pixels number of pixels that runs must have
+	 * @throws IllegalArgumentException if runs are malformed or do not have exactly <code>pixels</code> pixels
+	 */
+	public static void decode(byte[] bytes, int offset, int length, short[] target, int targetOffset, int pixels) {
+		int end = offset + length;
+		int position = offset;
+		int written = 0;
+		int[] number = new int[1];
+		while (position < end) {
+			position = readVarint(bytes, position, end, number);
+			short value = (short) number[0];
+			position = readVarint(bytes, position, end, number);
+			int count = number[0];
+			if (count <= 0 || count > pixels - written) {
+				throw new IllegalArgumentException("Runs have more pixels than expected " + pixels + ".");
+			}
+			Arrays.fill(target, targetOffset + written, targetOffset + written + count, value);
+			written += count;
+		}
+		if (written != pixels) {
+			throw new IllegalArgumentException("Runs have " + written + " pixels instead of " + pixels + ".");
+		}
+	}
+
+	/**Reads variable length integer into number[0] and returns position after it*/
+	private static int readVarint(byte[] bytes, int position, int end, int[] number) {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			if (position >= end) {
+				throw new IllegalArgumentException("Run is cut off.");
+			}
+			byte b = bytes[position++];
+			result |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				number[0] = result;
+				return position;
+			}
+		}
+		throw new IllegalArgumentException("Run length is too long.");
+	}
+}
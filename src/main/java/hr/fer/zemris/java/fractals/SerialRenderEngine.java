@@ -0,0 +1,26 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Engine that calculates frame on single thread, see {@link Newton}.
+ * @author gorsicleo
+ *
+ */
+public class SerialRenderEngine implements IRenderEngine {
+
+	@Override
+	public String getName() {
+		return "serial";
+	}
+
+	@Override
+	public boolean isParallel() {
+		return false;
+	}
+
+	@Override
+	public IFractalProducer createProducer(ComplexRootedPolynomial roots, int workers, int tracks) {
+		return new Newton.FractalProducerSerialImpl(roots);
+	}
+}
@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**Pool of <code>short[]</code> buffers grouped by length, so big result arrays of consecutive
+ * frames are reused instead of allocated for each frame. Only buffers of few most recently used lengths
+ * are kept, so resizing the window does not leave old buffers in pool forever.
+ * Acquired buffer has undefined content. Releasing buffer that is already in pool is refused, otherwise two
+ * callers would later acquire the same buffer.
+ * @author gorsicleo
+ *
+ */
+public class ShortBufferPool {
+
+	/**Number of different buffer lengths that pool keeps*/
+	private static final int MAX_LENGTHS = 4;
+
+	private final int maxBuffersPerLength;
+	/**free buffers compared by identity, to notice buffer released twice */
+	private final Set<short[]> pooled = Collections.newSetFromMap(new IdentityHashMap<>());
+	/**free buffers by length, in access order so least recently used length is evicted first */
+	private final Map<Integer, ArrayDeque<short[]>> free = new LinkedHashMap<Integer, ArrayDeque<short[]>>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, ArrayDeque<short[]>> eldest) {
+			if (size() > MAX_LENGTHS) {
+				pooled.removeAll(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+	private long reused;
+	private long allocated;
+
+	/**Creates pool that keeps at most <code>maxBuffersPerLength</code> free buffers of each length*/
+	public ShortBufferPool(int maxBuffersPerLength) {
+		if (maxBuffersPerLength < 1) {
+			throw new IllegalArgumentException("Pool must keep at least one buffer per length.");
+		}
+		this.maxBuffersPerLength = maxBuffersPerLength;
+	}
+
+	/**Returns free buffer of given length, or new one if there is none*/
+	public synchronized short[] acquire(int length) {
+		ArrayDeque<short[]> buffers = free.get(length);
+		if (buffers != null && !buffers.isEmpty()) {
+			reused++;
+			short[] buffer = buffers.pop();
+			pooled.remove(buffer);
+			return buffer;
+		}
+		allocated++;
+		return new short[length];
+	}
+
+	/**Returns buffer to pool. Caller must not use buffer after releasing it
+	 * @throws IllegalArgumentException if buffer is already in pool
+	 */
+	public synchronized void release(short[] buffer) {
+		if (pooled.contains(buffer)) {
+			throw new IllegalArgumentException("Buffer is already released to pool.");
+		}
+		ArrayDeque<short[]> buffers = free.computeIfAbsent(buffer.length, length -> new ArrayDeque<>());
+		if (buffers.size() < maxBuffersPerLength) {
+			buffers.push(buffer);
+			pooled.add(buffer);
+		}
+	}
+
+	/**Returns number of acquired buffers that were reused*/
+	public synchronized long reusedCount() {
+		return reused;
+	}
+
+	/**Returns number of acquired buffers that had to be allocated*/
+	public synchronized long allocatedCount() {
+		return allocated;
+	}
+}
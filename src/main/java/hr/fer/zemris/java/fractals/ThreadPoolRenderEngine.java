@@ -0,0 +1,33 @@
+package hr.fer.zemris.java.fractals;
+
+import hr.fer.zemris.java.fractals.NewtonParallel.FractalProducerParallelImpl;
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Engine that splits frame into tracks calculated by fixed pool of worker threads, see {@link NewtonParallel}.
+ * @author gorsicleo
+ *
+ */
+public class ThreadPoolRenderEngine implements IRenderEngine {
+
+	@Override
+	public String getName() {
+		return "thread-pool";
+	}
+
+	@Override
+	public boolean isParallel() {
+		return true;
+	}
+
+	/**Creates producer with its own workers and without pool of result buffers*/
+	@Override
+	public IFractalProducer createProducer(ComplexRootedPolynomial roots, int workers, int tracks) {
+		return new FractalProducerParallelImpl(roots, new int[] { workers, tracks }, specializeKernel());
+	}
+
+	/**Returns whether kernel is generated for polynomial, see {@link NewtonKernelGenerator}*/
+	protected boolean specializeKernel() {
+		return false;
+	}
+}
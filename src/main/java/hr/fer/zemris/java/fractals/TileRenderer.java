@@ -0,0 +1,110 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Calculates rows of frame tile by tile. Each tile is rendered into buffer owned by worker thread,
+ * with pixels of full tiles visited in Z-order (Morton order) so consecutive pixels are close in both directions,
+ * and is then copied into result row by row with {@link System#arraycopy}. Workers thus write into shared
+ * result only in bulk, once per tile row, instead of pixel by pixel next to other workers' rows.
+ * Pixels are calculated exactly as in {@link NewtonParallel#calculate}, so results are identical.
+ * @author gorsicleo
+ *
+ */
+public class TileRenderer {
+
+	/**Width and height of tile, power of two*/
+	public static final int TILE_SIZE = 32;
+	private static final int TILE_BITS = Integer.numberOfTrailingZeros(TILE_SIZE);
+	/**Offset in tile buffer of each pixel in Z-order */
+	private static final short[] Z_ORDER = new short[TILE_SIZE * TILE_SIZE];
+
+	static {
+		for (int code = 0; code < Z_ORDER.length; code++) {
+			Z_ORDER[code] = (short) ((compact(code >>> 1) << TILE_BITS) + compact(code));
+		}
+	}
+
+	/**Tile buffer of each worker thread*/
+	private static final ThreadLocal<short[]> TILE = ThreadLocal.withInitial(() -> new short[TILE_SIZE * TILE_SIZE]);
+	/**Iterations of each tile row, for each worker thread*/
+	private static final ThreadLocal<long[]> TILE_COST = ThreadLocal.withInitial(() -> new long[TILE_SIZE]);
+	private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[2]);
+
+	private TileRenderer() {
+	}
+
+	/**Calculates rows from yMin to yMax, has same parameters and result as
+	 * {@link NewtonParallel#calculate(double, double, double, double, int, int, int, int, int, short[], AtomicBoolean, ComplexRootedPolynomial, INewtonKernel, long[])}.
+	 * Cancel flag is checked before each tile.
+	 */
+	public static void calculate(double reMin, double reMax, double imMin, double imMax, int width, int height, int m,
+			int yMin, int yMax, short[] data, AtomicBoolean cancel, ComplexRootedPolynomial rootedPoly,
+			INewtonKernel kernel, long[] rowCost) {
+		short[] tile = TILE.get();
+		long[] tileCost = TILE_COST.get();
+		double[] z = SCRATCH.get();
+
+		for (int tileY = yMin; tileY <= yMax; tileY += TILE_SIZE) {
+			int tileHeight = Math.min(TILE_SIZE, yMax - tileY + 1);
+			if (rowCost != null) {
+				for (int y = tileY; y < tileY + tileHeight; y++) {
+					rowCost[y] = 0;
+				}
+			}
+			for (int tileX = 0; tileX < width; tileX += TILE_SIZE) {
+				if (cancel.get())
+					return;
+				int tileWidth = Math.min(TILE_SIZE, width - tileX);
+				renderTile(reMin, reMax, imMin, imMax, width, height, m, tileX, tileY, tileWidth, tileHeight, tile,
+						tileCost, z, rootedPoly, kernel);
+				for (int row = 0; row < tileHeight; row++) {
+					System.arraycopy(tile, row * TILE_SIZE, data, (tileY + row) * width + tileX, tileWidth);
+					if (rowCost != null) {
+						rowCost[tileY + row] += tileCost[row];
+					}
+				}
+			}
+		}
+	}
+
+	/**Renders tile into tile buffer, row r of tile starts at r * TILE_SIZE. Full tiles are visited in Z-order,
+	 * partial tiles at edges of frame or job row by row.*/
+	private static void renderTile(double reMin, double reMax, double imMin, double imMax, int width, int height,
+			int m, int tileX, int tileY, int tileWidth, int tileHeight, short[] tile, long[] tileCost, double[] z,
+			ComplexRootedPolynomial rootedPoly, INewtonKernel kernel) {
+		for (int row = 0; row < tileHeight; row++) {
+			tileCost[row] = 0;
+		}
+		if (tileWidth == TILE_SIZE && tileHeight == TILE_SIZE) {
+			for (int code = 0; code < Z_ORDER.length; code++) {
+				int offset = Z_ORDER[code];
+				int x = offset & (TILE_SIZE - 1);
+				int y = offset >>> TILE_BITS;
+				tileCost[y] += kernel.iterate(Newton.mapToReal(tileX + x, width, reMin, reMax),
+						Newton.mapToImaginary(tileY + y, height, imMin, imMax), m, z);
+				tile[offset] = (short) (rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD) + 1);
+			}
+			return;
+		}
+		for (int y = 0; y < tileHeight; y++) {
+			double imaginary = Newton.mapToImaginary(tileY + y, height, imMin, imMax);
+			for (int x = 0; x < tileWidth; x++) {
+				tileCost[y] += kernel.iterate(Newton.mapToReal(tileX + x, width, reMin, reMax), imaginary, m, z);
+				tile[(y << TILE_BITS) + x] = (short) (rootedPoly.indexOfClosestRootFor(z[0], z[1],
+						INewtonKernel.ROOT_THRESHOLD) + 1);
+			}
+		}
+	}
+
+	/**Returns number made of even bits of Morton code*/
+	static int compact(int code) {
+		int x = code & 0x55555555;
+		x = (x | (x >>> 1)) & 0x33333333;
+		x = (x | (x >>> 2)) & 0x0F0F0F0F;
+		x = (x | (x >>> 4)) & 0x00FF00FF;
+		x = (x | (x >>> 8)) & 0x0000FFFF;
+		return x;
+	}
+}
@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.fractals;
+
+/**Models visible part of complex plane, bounded by reMin, reMax, imMin and imMax.
+ * @author gorsicleo
+ *
+ */
+public class Viewport {
+
+	/**smallest real value of complex plane */
+	private final double reMin;
+	/**biggest real value of complex plane */
+	private final double reMax;
+	/**smallest imaginary value of complex plane */
+	private final double imMin;
+	/**biggest imaginary value of complex plane */
+	private final double imMax;
+
+	/**Creates new viewport with given edges of complex plane
+	 * @throws IllegalArgumentException if minimum edge is not smaller than maximum edge
+	 */
+	public Viewport(double reMin, double reMax, double imMin, double imMax) {
+		if (!(reMin < reMax) || !(imMin < imMax)) {
+			throw new IllegalArgumentException("Viewport minimum must be smaller than maximum.");
+		}
+		this.reMin = reMin;
+		this.reMax = reMax;
+		this.imMin = imMin;
+		this.imMax = imMax;
+	}
+
+	public double getReMin() {
+		return reMin;
+	}
+
+	public double getReMax() {
+		return reMax;
+	}
+
+	public double getImMin() {
+		return imMin;
+	}
+
+	public double getImMax() {
+		return imMax;
+	}
+
+	/**Returns viewport between this (t = 0) and other (t = 1) viewport.
+	 * Center is interpolated linearly and size geometrically, so zooming has constant speed.
+	 * @param other viewport at t = 1
+	 * @param t position between viewports
+	 * @return interpolated viewport
+	 */
+	public Viewport interpolate(Viewport other, double t) {
+		double reCenter = lerp(center(reMin, reMax), center(other.reMin, other.reMax), t);
+		double imCenter = lerp(center(imMin, imMax), center(other.imMin, other.imMax), t);
+		double reHalf = geometric(reMax - reMin, other.reMax - other.reMin, t) / 2;
+		double imHalf = geometric(imMax - imMin, other.imMax - other.imMin, t) / 2;
+		return new Viewport(reCenter - reHalf, reCenter + reHalf, imCenter - imHalf, imCenter + imHalf);
+	}
+
+	/**Parses viewport in format of "reMin reMax imMin imMax"
+	 * @param line to be parsed
+	 * @return parsed viewport
+	 * @throws IllegalArgumentException if line is not valid viewport
+	 */
+	public static Viewport parse(String line) {
+		String[] parts = line.trim().split("\\s+");
+		if (parts.length != 4) {
+			throw new IllegalArgumentException("Parse error: viewport must be given as reMin reMax imMin imMax.");
+		}
+		try {
+			return new Viewport(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+					Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Parse error: viewport edges cannot be parsed to double.");
+		}
+	}
+
+	private static double center(double min, double max) {
+		return (min + max) / 2;
+	}
+
+	private static double lerp(double a, double b, double t) {
+		return a + (b - a) * t;
+	}
+
+	private static double geometric(double a, double b, double t) {
+		return a * Math.pow(b / a, t);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%s, %s] x [%s, %s]", reMin, reMax, imMin, imMax);
+	}
+
+}
@@ -0,0 +1,260 @@
+package hr.fer.zemris.java.fractals.checkpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hr.fer.zemris.java.fractals.HornerNewtonKernel;
+import hr.fer.zemris.java.fractals.INewtonKernel;
+import hr.fer.zemris.java.fractals.Newton;
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.RootDisks;
+import hr.fer.zemris.java.fractals.RunLengthEncoder;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Renders large frame tile by tile and keeps finished tiles in checkpoint directory, so that render which
+ * was interrupted (cancelled, or JVM died) continues where it stopped. Every finished tile is appended to
+ * {@link TileLog}; at most every <code>checkpointMillis</code> log is forced to disk and {@link RenderManifest}
+ * with progress is replaced. On start, tiles from log are read back and only missing tiles are calculated.
+ * Pixels are calculated exactly as in {@link hr.fer.zemris.java.fractals.NewtonParallel#calculate}.
+ * @author gorsicleo
+ *
+ */
+public class CheckpointedRenderer implements IFractalProducer {
+
+	/**Default width and height of tile*/
+	public static final int DEFAULT_TILE_SIZE = 128;
+	private static final String MANIFEST_FILE = "manifest.properties";
+	private static final String LOG_FILE = "tiles.log";
+	private static final int ITERATIONS = 16 * 16 * 16;
+
+	private ComplexRootedPolynomial rootedPoly;
+	private INewtonKernel kernel;
+	private Path directory;
+	private int tileSize;
+	private long checkpointMillis;
+	private ExecutorService executor;
+
+	private volatile int resumedTiles;
+	private volatile int calculatedTiles;
+
+	/**Creates new renderer
+	 * @param rootedPoly user entered polynomial
+	 * @param directory checkpoint directory, created if needed
+	 * @param tileSize width and height of tile
+	 * @param checkpointMillis time between forcing tiles to disk
+	 * @param executor calculates tiles, null to calculate on calling thread
+	 */
+	public CheckpointedRenderer(ComplexRootedPolynomial rootedPoly, Path directory, int tileSize,
+			long checkpointMillis, ExecutorService executor) {
+		if (tileSize < 1 || checkpointMillis < 0) {
+			throw new IllegalArgumentException("Tile size must be positive and checkpoint interval non negative.");
+		}
+		this.rootedPoly = rootedPoly;
+		this.kernel = new HornerNewtonKernel(rootedPoly.toComplexPolynom(), new RootDisks(rootedPoly));
+		this.directory = directory;
+		this.tileSize = tileSize;
+		this.checkpointMillis = checkpointMillis;
+		this.executor = executor;
+	}
+
+	/**Returns number of tiles of last render that were read from checkpoint*/
+	public int resumedTiles() {
+		return resumedTiles;
+	}
+
+	/**Returns number of tiles of last render that were calculated*/
+	public int calculatedTiles() {
+		return calculatedTiles;
+	}
+
+	@Override
+	public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
+			long requestNo, IFractalResultObserver observer, AtomicBoolean cancel) {
+		short[] data;
+		try {
+			data = render(new Viewport(reMin, reMax, imMin, imMax), width, height, cancel);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (data == null)
+			return;
+		System.out.println("Racunanje gotovo. Idem obavijestiti promatraca tj. GUI!");
+		observer.acceptResult(data, (short) (rootedPoly.getRoots().length + 1), requestNo);
+	}
+
+	/**Renders frame, continuing render of same frame from checkpoint directory if there is one
+	 * @return root index + 1 of each pixel, or null if render was cancelled
+	 * @throws IOException if checkpoint cannot be read or written
+	 * @throws IllegalArgumentException if checkpoint directory holds render of other frame
+	 */
+	public short[] render(Viewport viewport, int width, int height, AtomicBoolean cancel) throws IOException {
+		int tilesX = (width + tileSize - 1) / tileSize;
+		int tilesY = (height + tileSize - 1) / tileSize;
+		Files.createDirectories(directory);
+		Path manifestFile = directory.resolve(MANIFEST_FILE);
+		Path logFile = directory.resolve(LOG_FILE);
+
+		RenderManifest manifest = new RenderManifest(rootedPoly, viewport, width, height, tileSize, tilesX * tilesY);
+		RenderManifest stored = RenderManifest.read(manifestFile);
+		if (stored == null) {
+			Files.deleteIfExists(logFile);
+			manifest.write(manifestFile);
+		} else if (!stored.sameRender(manifest)) {
+			throw new IllegalArgumentException("Directory " + directory + " holds checkpoint of other render.");
+		}
+
+		short[] data = new short[width * height];
+		boolean[] finished = new boolean[tilesX * tilesY];
+		try (TileLog log = new TileLog(logFile)) {
+			AtomicInteger completed = new AtomicInteger();
+			log.replay((x, y, tileWidth, tileHeight, tile) -> {
+				if (x % tileSize != 0 || y % tileSize != 0 || x + tileWidth > width || y + tileHeight > height)
+					return;
+				for (int row = 0; row < tileHeight; row++) {
+					System.arraycopy(tile, row * tileWidth, data, (y + row) * width + x, tileWidth);
+				}
+				int index = y / tileSize * tilesX + x / tileSize;
+				if (!finished[index]) {
+					finished[index] = true;
+					completed.incrementAndGet();
+				}
+			});
+			resumedTiles = completed.get();
+			calculatedTiles = 0;
+			if (resumedTiles > 0) {
+				System.out.printf("Nastavljam izracun: %d od %d plocica vec je gotovo.%n", resumedTiles, finished.length);
+			}
+
+			Checkpoint checkpoint = new Checkpoint(log, manifest, manifestFile, completed);
+			AtomicBoolean failed = new AtomicBoolean(false);
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int tileY = 0; tileY < tilesY; tileY++) {
+				for (int tileX = 0; tileX < tilesX; tileX++) {
+					if (finished[tileY * tilesX + tileX])
+						continue;
+					int x = tileX * tileSize;
+					int y = tileY * tileSize;
+					Runnable task = () -> {
+						if (cancel.get() || failed.get())
+							return;
+						try {
+							renderTile(viewport, width, height, x, y, data, checkpoint, cancel, failed);
+						} catch (RuntimeException e) {
+							failed.set(true);
+							throw e;
+						}
+					};
+					if (executor == null) {
+						task.run();
+					} else {
+						tasks.add(executor.submit(task));
+					}
+				}
+			}
+			// all tiles must stop before log is closed, failed tile stops the others
+			IllegalStateException failure = null;
+			for (Future<?> task : tasks) {
+				try {
+					NewtonParallel.waitFor(task, "Tile calculation failed.");
+				} catch (IllegalStateException e) {
+					if (failure == null) {
+						failure = e;
+					} else {
+						failure.addSuppressed(e);
+					}
+				}
+			}
+			if (failure != null) {
+				try {
+					checkpoint.write();
+				} catch (IOException e) {
+					failure.addSuppressed(e);
+				}
+				throw failure;
+			}
+			checkpoint.write();
+			calculatedTiles = completed.get() - resumedTiles;
+			return completed.get() == finished.length ? data : null;
+		}
+	}
+
+	/**Calculates tile with upper left pixel (x, y), copies it into frame and appends it to log.
+	 * Pixels are given to run-length encoder as they are classified, so tile is never encoded from array.
+	 * Tile stops when render is cancelled or other tile failed.*/
+	private void renderTile(Viewport viewport, int width, int height, int x, int y, short[] data,
+			Checkpoint checkpoint, AtomicBoolean cancel, AtomicBoolean failed) {
+		int tileWidth = Math.min(tileSize, width - x);
+		int tileHeight = Math.min(tileSize, height - y);
+		short[] tile = new short[tileWidth * tileHeight];
+		RunLengthEncoder runs = new RunLengthEncoder();
+		double[] z = new double[2];
+		int offset = 0;
+		for (int row = 0; row < tileHeight; row++) {
+			if (cancel.get() || failed.get())
+				return;
+			double imaginary = Newton.mapToImaginary(y + row, height, viewport.getImMin(), viewport.getImMax());
+			for (int column = 0; column < tileWidth; column++) {
+				kernel.iterate(Newton.mapToReal(x + column, width, viewport.getReMin(), viewport.getReMax()), imaginary,
+						ITERATIONS, z);
+				short index = (short) (rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD) + 1);
+				tile[offset++] = index;
+				runs.add(index);
+			}
+			System.arraycopy(tile, row * tileWidth, data, (y + row) * width + x, tileWidth);
+		}
+		try {
+			checkpoint.tileFinished(x, y, tileWidth, tileHeight, runs);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**Appends finished tiles to log and periodically makes them durable*/
+	private class Checkpoint {
+		private TileLog log;
+		private RenderManifest manifest;
+		private Path manifestFile;
+		private AtomicInteger completed;
+		private long lastCheckpoint = System.currentTimeMillis();
+
+		private Checkpoint(TileLog log, RenderManifest manifest, Path manifestFile, AtomicInteger completed) {
+			this.log = log;
+			this.manifest = manifest;
+			this.manifestFile = manifestFile;
+			this.completed = completed;
+		}
+
+		private void tileFinished(int x, int y, int width, int height, RunLengthEncoder runs) throws IOException {
+			log.append(x, y, width, height, runs);
+			completed.incrementAndGet();
+			synchronized (this) {
+				if (System.currentTimeMillis() - lastCheckpoint >= checkpointMillis) {
+					write();
+				}
+			}
+		}
+
+		/**Forces log to disk and then records its progress in manifest. Tiles are counted only after they are
+		 * appended, and log length is read before forcing, so manifest never counts bytes that force did not cover
+		 * even when other threads keep appending.*/
+		private synchronized void write() throws IOException {
+			int tiles = completed.get();
+			long logBytes = log.size();
+			log.force();
+			manifest.setProgress(tiles, logBytes);
+			manifest.write(manifestFile);
+			lastCheckpoint = System.currentTimeMillis();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package hr.fer.zemris.java.fractals.checkpoint;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.java.fractals.Newton;
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.PngFrameWriter;
+import hr.fer.zemris.java.fractals.RunLengthCodec;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Renders single large frame without viewer and writes it as PNG image, or as root indexes in format of
+ * {@link RunLengthCodec} (frame.rle). Finished tiles are kept in checkpoint directory, so render that was
+ * interrupted continues when program is started again with same arguments.
+ * Arguments: --viewport="reMin reMax imMin imMax", --size=WIDTHxHEIGHT, --output=DIR, --format=png|rle,
+ * --checkpoint=DIR, --tile-size=N, --checkpoint-ms=N and parallelization arguments of {@link NewtonParallel}.
+ * @author gorsicleo
+ *
+ */
+public class NewtonRender {
+
+	private static final String VIEWPORT_ARGUMENT = "--viewport=";
+	private static final String SIZE_ARGUMENT = "--size=";
+	private static final String OUTPUT_ARGUMENT = "--output=";
+	private static final String FORMAT_ARGUMENT = "--format=";
+	private static final String CHECKPOINT_ARGUMENT = "--checkpoint=";
+	private static final String TILE_SIZE_ARGUMENT = "--tile-size=";
+	private static final String CHECKPOINT_MS_ARGUMENT = "--checkpoint-ms=";
+
+	public static void main(String[] args) throws IOException {
+		Viewport viewport = Viewport.parse(NewtonParallel.argument(args, VIEWPORT_ARGUMENT, "-2 2 -2 2"));
+		String[] size = NewtonParallel.argument(args, SIZE_ARGUMENT, "8000x8000").split("x");
+		Path output = Paths.get(NewtonParallel.argument(args, OUTPUT_ARGUMENT, "render"));
+		boolean runLength = NewtonParallel.argument(args, FORMAT_ARGUMENT, "png").equalsIgnoreCase("rle");
+		Path checkpoint = Paths.get(NewtonParallel.argument(args, CHECKPOINT_ARGUMENT, "render-checkpoint"));
+		int tileSize = Integer.parseInt(NewtonParallel.argument(args, TILE_SIZE_ARGUMENT,
+				String.valueOf(CheckpointedRenderer.DEFAULT_TILE_SIZE)));
+		long checkpointMillis = Long.parseLong(NewtonParallel.argument(args, CHECKPOINT_MS_ARGUMENT, "5000"));
+		int[] parallelization = NewtonParallel.parseArgs(args);
+		int width = Integer.parseInt(size[0]);
+		int height = Integer.parseInt(size[1]);
+
+		ComplexRootedPolynomial roots = Newton.inputRoots();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelization[0]);
+		try {
+			CheckpointedRenderer renderer = new CheckpointedRenderer(roots, checkpoint, tileSize, checkpointMillis,
+					executor);
+			short[] data = renderer.render(viewport, width, height, new AtomicBoolean(false));
+			System.out.printf("Izracunato plocica: %d, nastavljeno iz kontrolne tocke: %d%n",
+					renderer.calculatedTiles(), renderer.resumedTiles());
+			short order = (short) (roots.getRoots().length + 1);
+			if (runLength) {
+				Files.createDirectories(output);
+				try (OutputStream os = Files.newOutputStream(output.resolve("frame.rle"))) {
+					RunLengthCodec.write(os, data, width, height, order);
+				}
+			} else {
+				new PngFrameWriter(output).writeFrame(0, data, width, height, order);
+			}
+			System.out.println("Slika zapisana u " + output);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.fractals.checkpoint;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Description of checkpointed render and its progress, stored as properties file next to tile log.
+ * Render can be resumed only with same polynomial, viewport, frame size and tile size. Manifest is replaced
+ * atomically, so it is either old or new one after crash, and its progress never counts tiles that are
+ * not yet in tile log.
+ * @author gorsicleo
+ *
+ */
+public class RenderManifest {
+
+	private static final String[] CONFIGURATION_KEYS = { "roots", "viewport", "width", "height", "tileSize" };
+
+	private Properties properties = new Properties();
+
+	/**Creates manifest of render with no finished tiles*/
+	public RenderManifest(ComplexRootedPolynomial rootedPoly, Viewport viewport, int width, int height, int tileSize,
+			int tiles) {
+		StringBuilder roots = new StringBuilder();
+		for (Complex root : rootedPoly.getRoots()) {
+			if (roots.length() > 0) {
+				roots.append(", ");
+			}
+			roots.append(root.getReal()).append(' ').append(root.getImaginary());
+		}
+		properties.setProperty("roots", roots.toString());
+		properties.setProperty("viewport", viewport.getReMin() + " " + viewport.getReMax() + " "
+				+ viewport.getImMin() + " " + viewport.getImMax());
+		properties.setProperty("width", String.valueOf(width));
+		properties.setProperty("height", String.valueOf(height));
+		properties.setProperty("tileSize", String.valueOf(tileSize));
+		properties.setProperty("tiles", String.valueOf(tiles));
+		setProgress(0, 0);
+	}
+
+	private RenderManifest() {
+	}
+
+	/**Reads manifest from file
+	 * @return manifest, or null if file does not exist
+	 */
+	public static RenderManifest read(Path file) throws IOException {
+		if (!Files.exists(file))
+			return null;
+		RenderManifest manifest = new RenderManifest();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+			manifest.properties.load(reader);
+		}
+		return manifest;
+	}
+
+	/**Returns true if both manifests describe same render*/
+	public boolean sameRender(RenderManifest other) {
+		for (String key : CONFIGURATION_KEYS) {
+			if (!properties.getProperty(key, "").equals(other.properties.getProperty(key, "")))
+				return false;
+		}
+		return true;
+	}
+
+	/**Sets number of tiles and length of tile log that are on disk*/
+	public void setProgress(int completedTiles, long logBytes) {
+		properties.setProperty("completedTiles", String.valueOf(completedTiles));
+		properties.setProperty("logBytes", String.valueOf(logBytes));
+	}
+
+	public int getTiles() {
+		return Integer.parseInt(properties.getProperty("tiles"));
+	}
+
+	public int getCompletedTiles() {
+		return Integer.parseInt(properties.getProperty("completedTiles", "0"));
+	}
+
+	/**Writes manifest into temporary file and moves it over old manifest*/
+	public void write(Path file) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.ISO_8859_1)) {
+			properties.store(writer, "Newton-Raphson fractal render");
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,172 @@
+package hr.fer.zemris.java.fractals.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import hr.fer.zemris.java.fractals.RunLengthEncoder;
+
+/**Append-only log of finished tiles of one frame. Log starts with magic number and format version (2 ints),
+ * followed by records. Each record is tile position and size (4 ints), number of
+ * bytes of runs (int), root indexes of tile row by row encoded with {@link RunLengthEncoder}, and CRC32 of all
+ * that as long. Records are only appended, so after crash
+ * only last record can be incomplete; {@link #replay(TileConsumer)} stops at first record that is not whole
+ * and cuts it off, so render continues after last finished tile. Log of other format is refused, not cut off.
+ * @author gorsicleo
+ *
+ */
+public class TileLog implements AutoCloseable {
+
+	private static final int MAGIC = 0x544C4F47;
+	/**Version of record format, changed whenever records are written differently*/
+	public static final int VERSION = 2;
+	/**Length of magic number and version at start of log*/
+	static final int FILE_HEADER_BYTES = 2 * Integer.BYTES;
+	private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+	/**Receives tiles read from log*/
+	public interface TileConsumer {
+		void accept(int x, int y, int width, int height, short[] data);
+	}
+
+	private FileChannel channel;
+	/**whether log is positioned after last whole record, so records can be appended, guarded by this */
+	private boolean positioned;
+
+	/**Opens log, creating it if file does not exist. Log that already has records must be
+	 * {@link #replay(TileConsumer) replayed} before tiles are appended to it.
+	 * @throws IOException if file cannot be opened or holds log of other format or version
+	 */
+	public TileLog(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			checkHeader(file);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**Writes header to new log, or checks header of existing one. Log that is shorter than header can only be
+	 * left by crash while it was created, so it is started again if it holds start of header.*/
+	private void checkHeader(Path file) throws IOException {
+		ByteBuffer expected = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+		ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+		}
+		header.flip();
+		expected.flip();
+		boolean whole = header.remaining() == FILE_HEADER_BYTES;
+		expected.limit(header.remaining());
+		if (!header.equals(expected)) {
+			throw new IOException("File " + file + " is not tile log of version " + VERSION + ".");
+		}
+		if (!whole) {
+			expected.clear();
+			channel.truncate(0);
+			while (expected.hasRemaining()) {
+				channel.write(expected, expected.position());
+			}
+			channel.force(false);
+		}
+		channel.position(FILE_HEADER_BYTES);
+		positioned = channel.size() == FILE_HEADER_BYTES;
+	}
+
+	/**Reads all whole records from start of log, cuts off incomplete or corrupted rest of file and positions
+	 * log for appending
+	 * @return number of records read
+	 */
+	public synchronized int replay(TileConsumer consumer) throws IOException {
+		long size = channel.size();
+		long position = FILE_HEADER_BYTES;
+		int records = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		while (true) {
+			header.clear();
+			if (position + HEADER_BYTES > size || channel.read(header, position) < HEADER_BYTES)
+				break;
+			header.flip();
+			int x = header.getInt();
+			int y = header.getInt();
+			int width = header.getInt();
+			int height = header.getInt();
+			int runBytes = header.getInt();
+			if (x < 0 || y < 0 || width <= 0 || height <= 0 || runBytes < 0
+					|| position + HEADER_BYTES + (long) runBytes + Long.BYTES > size)
+				break;
+			int length = HEADER_BYTES + runBytes + Long.BYTES;
+			ByteBuffer record = ByteBuffer.allocate(length);
+			channel.read(record, position);
+			record.flip();
+			CRC32 crc = new CRC32();
+			crc.update(record.array(), 0, length - Long.BYTES);
+			if (record.getLong(length - Long.BYTES) != crc.getValue())
+				break;
+			short[] data = new short[width * height];
+			try {
+				RunLengthEncoder.decode(record.array(), HEADER_BYTES, runBytes, data, 0, data.length);
+			} catch (IllegalArgumentException e) {
+				break;
+			}
+			consumer.accept(x, y, width, height, data);
+			position += length;
+			records++;
+		}
+		channel.truncate(position);
+		channel.position(position);
+		positioned = true;
+		return records;
+	}
+
+	/**Appends tile to log, tile is not durable until {@link #force()}
+	 * @param data width * height root indexes, row by row
+	 */
+	public void append(int x, int y, int width, int height, short[] data) throws IOException {
+		RunLengthEncoder runs = new RunLengthEncoder();
+		runs.addAll(data, 0, width * height);
+		append(x, y, width, height, runs);
+	}
+
+	/**Appends tile given as runs of its root indexes, row by row, tile is not durable until {@link #force()}
+	 * @throws IllegalStateException if log has records and was not replayed, so its end is not known
+	 */
+	public void append(int x, int y, int width, int height, RunLengthEncoder runs) throws IOException {
+		byte[] runBytes = runs.toByteArray();
+		int length = HEADER_BYTES + runBytes.length + Long.BYTES;
+		ByteBuffer record = ByteBuffer.allocate(length);
+		record.putInt(x).putInt(y).putInt(width).putInt(height).putInt(runBytes.length);
+		record.put(runBytes);
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), 0, length - Long.BYTES);
+		record.putLong(length - Long.BYTES, crc.getValue());
+		record.rewind();
+		synchronized (this) {
+			if (!positioned) {
+				throw new IllegalStateException("Tile log must be replayed before tiles are appended.");
+			}
+			while (record.hasRemaining()) {
+				channel.write(record);
+			}
+		}
+	}
+
+	/**Returns length of log in bytes*/
+	public synchronized long size() throws IOException {
+		return channel.position();
+	}
+
+	/**Writes appended records to disk*/
+	public void force() throws IOException {
+		channel.force(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.force(false);
+		channel.close();
+	}
+}
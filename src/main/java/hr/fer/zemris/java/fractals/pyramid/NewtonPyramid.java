@@ -0,0 +1,57 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.java.fractals.Newton;
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.java.fractals.viewer.FractalViewer;
+
+/**Shows fractal from persistent tile pyramid. Levels up to --prebuild=K are calculated before viewer is
+ * shown, deeper levels when they are first viewed; tiles stay in store file for next run.
+ * Arguments: --store=FILE, --area="reMin reMax imMin imMax", --levels=N (last level), --tile-size=N,
+ * --prebuild=K and parallelization arguments of {@link NewtonParallel}.
+ * @author gorsicleo
+ *
+ */
+public class NewtonPyramid {
+
+	private static final String STORE_ARGUMENT = "--store=";
+	private static final String AREA_ARGUMENT = "--area=";
+	private static final String LEVELS_ARGUMENT = "--levels=";
+	private static final String TILE_SIZE_ARGUMENT = "--tile-size=";
+	private static final String PREBUILD_ARGUMENT = "--prebuild=";
+
+	public static void main(String[] args) throws IOException {
+		Path store = Paths.get(NewtonParallel.argument(args, STORE_ARGUMENT, "newton-pyramid.tiles"));
+		Viewport area = Viewport.parse(NewtonParallel.argument(args, AREA_ARGUMENT, "-2 2 -2 2"));
+		int levels = Integer.parseInt(NewtonParallel.argument(args, LEVELS_ARGUMENT, "8"));
+		int tileSize = Integer.parseInt(NewtonParallel.argument(args, TILE_SIZE_ARGUMENT, String.valueOf(TilePyramid.DEFAULT_TILE_SIZE)));
+		int prebuild = Math.min(levels, Integer.parseInt(NewtonParallel.argument(args, PREBUILD_ARGUMENT, "3")));
+		int[] parallelization = NewtonParallel.parseArgs(args);
+
+		TilePyramid pyramid = new TilePyramid(Newton.inputRoots(), area, tileSize, levels, store);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				pyramid.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}));
+		ExecutorService executor = Executors.newFixedThreadPool(parallelization[0], r -> {
+			Thread thread = new Thread(r);
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		System.out.println("Plocica u spremistu: " + pyramid.storedTiles());
+		new TilePyramidBuilder(pyramid, executor).build(prebuild, new AtomicBoolean(false));
+		FractalViewer.show(new PyramidFractalProducer(pyramid, executor));
+	}
+}
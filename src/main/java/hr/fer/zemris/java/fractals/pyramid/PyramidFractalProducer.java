@@ -0,0 +1,172 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hr.fer.zemris.java.fractals.INewtonKernel;
+import hr.fer.zemris.java.fractals.Newton;
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
+
+/**Produces frames from tiles of {@link TilePyramid}. For each request, coarsest level whose pixels are not
+ * larger than pixels of frame is chosen, and every pixel of frame gets value of nearest pixel of that level.
+ * Tiles that are not stored are calculated and stored, so each area is calculated only once. Pixels outside
+ * of pyramid area, and frames zoomed in deeper than last level, are calculated directly.
+ * @author gorsicleo
+ *
+ */
+public class PyramidFractalProducer implements IFractalProducer {
+
+	private static final int ITERATIONS = 16 * 16 * 16;
+	/**Relative tolerance when pixel size of level is compared to pixel size of frame*/
+	private static final double STEP_TOLERANCE = 1e-9;
+
+	private TilePyramid pyramid;
+	private ExecutorService executor;
+
+	/**Creates new producer
+	 * @param pyramid source of tiles
+	 * @param executor calculates missing tiles, null to calculate on calling thread
+	 */
+	public PyramidFractalProducer(TilePyramid pyramid, ExecutorService executor) {
+		this.pyramid = pyramid;
+		this.executor = executor;
+	}
+
+	@Override
+	public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height,
+			long requestNo, IFractalResultObserver observer, AtomicBoolean cancel) {
+		System.out.println("Zapocinjem izracun...");
+		short[] data = new short[width * height];
+		int level = chooseLevel(reMin, reMax, imMin, imMax, width, height);
+
+		if (level < 0) {
+			NewtonParallel.calculate(reMin, reMax, imMin, imMax, width, height, ITERATIONS, 0, height - 1, data,
+					cancel, pyramid.getRootedPoly(), pyramid.getKernel(), null);
+		} else {
+			assemble(level, reMin, reMax, imMin, imMax, width, height, data, cancel);
+		}
+		if (cancel.get())
+			return;
+		System.out.println("Racunanje gotovo. Idem obavijestiti promatraca tj. GUI!");
+		observer.acceptResult(data, pyramid.getOrder(), requestNo);
+	}
+
+	/**Returns coarsest level with pixels not larger than pixels of frame, or -1 if even last level is too coarse*/
+	int chooseLevel(double reMin, double reMax, double imMin, double imMax, int width, int height) {
+		double reStep = width > 1 ? (reMax - reMin) / (width - 1) : Double.POSITIVE_INFINITY;
+		double imStep = height > 1 ? (imMax - imMin) / (height - 1) : Double.POSITIVE_INFINITY;
+		for (int level = 0; level <= pyramid.getMaxLevel(); level++) {
+			if (pyramid.reStep(level) <= reStep * (1 + STEP_TOLERANCE)
+					&& pyramid.imStep(level) <= imStep * (1 + STEP_TOLERANCE)) {
+				return level;
+			}
+		}
+		return -1;
+	}
+
+	/**Fills frame with nearest pixels of given level*/
+	private void assemble(int level, double reMin, double reMax, double imMin, double imMax, int width, int height,
+			short[] data, AtomicBoolean cancel) {
+		int tileSize = pyramid.getTileSize();
+		long levelSize = (long) tileSize << level;
+		int[] columns = new int[width];
+		int[] rows = new int[height];
+		for (int x = 0; x < width; x++) {
+			double position = (Newton.mapToReal(x, width, reMin, reMax) - pyramid.getArea().getReMin())
+					/ pyramid.reStep(level);
+			columns[x] = position >= 0 && position < levelSize ? (int) position : -1;
+		}
+		for (int y = 0; y < height; y++) {
+			double position = (pyramid.getArea().getImMax() - Newton.mapToImaginary(y, height, imMin, imMax))
+					/ pyramid.imStep(level);
+			rows[y] = position >= 0 && position < levelSize ? (int) position : -1;
+		}
+
+		boolean inside = first(columns) >= 0 && first(rows) >= 0;
+		int firstTileX = inside ? first(columns) / tileSize : 0;
+		int lastTileX = inside ? last(columns) / tileSize : -1;
+		int firstTileY = inside ? first(rows) / tileSize : 0;
+		int lastTileY = inside ? last(rows) / tileSize : -1;
+		short[][][] tiles = loadTiles(level, firstTileX, lastTileX, firstTileY, lastTileY, cancel);
+		if (cancel.get())
+			return;
+
+		INewtonKernel kernel = pyramid.getKernel();
+		double[] z = new double[2];
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (rows[y] < 0 || columns[x] < 0) {
+					kernel.iterate(Newton.mapToReal(x, width, reMin, reMax), Newton.mapToImaginary(y, height, imMin, imMax),
+							ITERATIONS, z);
+					data[offset++] = (short) (pyramid.getRootedPoly().indexOfClosestRootFor(z[0], z[1],
+							INewtonKernel.ROOT_THRESHOLD) + 1);
+					continue;
+				}
+				short[] tile = tiles[rows[y] / tileSize - firstTileY][columns[x] / tileSize - firstTileX];
+				data[offset++] = tile[rows[y] % tileSize * tileSize + columns[x] % tileSize];
+			}
+		}
+	}
+
+	/**Reads or calculates tiles in given range, array is indexed by tile row and column relative to range.
+	 * Range is empty if last tile is before first one.*/
+	private short[][][] loadTiles(int level, int firstTileX, int lastTileX, int firstTileY, int lastTileY,
+			AtomicBoolean cancel) {
+		int tileSize = pyramid.getTileSize();
+		short[][][] tiles = new short[Math.max(0, lastTileY - firstTileY + 1)][Math.max(0, lastTileX - firstTileX + 1)][];
+		AtomicInteger calculated = new AtomicInteger();
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int ty = firstTileY; ty <= lastTileY; ty++) {
+			for (int tx = firstTileX; tx <= lastTileX; tx++) {
+				short[] tile = new short[tileSize * tileSize];
+				tiles[ty - firstTileY][tx - firstTileX] = tile;
+				int x = tx;
+				int y = ty;
+				if (executor == null || pyramid.isStored(level, x, y)) {
+					if (pyramid.load(level, x, y, tile, cancel)) {
+						calculated.incrementAndGet();
+					}
+				} else {
+					tasks.add(executor.submit(() -> {
+						if (pyramid.load(level, x, y, tile, cancel)) {
+							calculated.incrementAndGet();
+						}
+					}));
+				}
+			}
+		}
+		for (Future<?> task : tasks) {
+			NewtonParallel.waitFor(task, "Tile calculation failed.");
+		}
+		System.out.printf("Razina %d, plocica: %d, izracunato: %d%n", level,
+				tiles.length * (tiles.length == 0 ? 0 : tiles[0].length), calculated.get());
+		return tiles;
+	}
+
+	/**Returns smallest non negative value, or -1 if there is none*/
+	private static int first(int[] values) {
+		int first = Integer.MAX_VALUE;
+		for (int value : values) {
+			if (value >= 0 && value < first) {
+				first = value;
+			}
+		}
+		return first == Integer.MAX_VALUE ? -1 : first;
+	}
+
+	/**Returns largest value, -1 if all values are negative*/
+	private static int last(int[] values) {
+		int last = -1;
+		for (int value : values) {
+			last = Math.max(last, value);
+		}
+		return last;
+	}
+}
@@ -0,0 +1,158 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.java.fractals.HornerNewtonKernel;
+import hr.fer.zemris.java.fractals.INewtonKernel;
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.RootDisks;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Pyramid of root-index tiles of one polynomial over fixed area of complex plane, like tiles of web map.
+ * Level 0 covers whole area with one tile, every next level halves pixel size, so level L has
+ * 2^L x 2^L tiles. Pixel (x, y) of level is sample at center of cell (x, y) of grid over area,
+ * with y growing downwards. Tiles are calculated when first needed and kept in {@link TileStore}.
+ * @author gorsicleo
+ *
+ */
+public class TilePyramid implements AutoCloseable {
+
+	/**Default width and height of tile*/
+	public static final int DEFAULT_TILE_SIZE = 256;
+	private static final int ITERATIONS = 16 * 16 * 16;
+
+	private ComplexRootedPolynomial rootedPoly;
+	private INewtonKernel kernel;
+	private Viewport area;
+	private int tileSize;
+	private int maxLevel;
+	private TileStore store;
+
+	/**Opens pyramid stored in given file, creating file if it does not exist
+	 * @param rootedPoly user entered polynomial
+	 * @param area part of complex plane covered by pyramid
+	 * @param tileSize width and height of tile, at least 2
+	 * @param maxLevel deepest level
+	 * @param file of tile store
+	 * @throws IOException if store cannot be opened
+	 * @throws IllegalArgumentException if file is store of other polynomial, area or tile size
+	 */
+	public TilePyramid(ComplexRootedPolynomial rootedPoly, Viewport area, int tileSize, int maxLevel, Path file)
+			throws IOException {
+		if (tileSize < 2) {
+			throw new IllegalArgumentException("Tile must have at least 2 x 2 pixels.");
+		}
+		this.rootedPoly = rootedPoly;
+		this.kernel = new HornerNewtonKernel(rootedPoly.toComplexPolynom(), new RootDisks(rootedPoly));
+		this.area = area;
+		this.tileSize = tileSize;
+		this.maxLevel = maxLevel;
+		this.store = new TileStore(file, tileSize, maxLevel, fingerprint(rootedPoly, area));
+	}
+
+	/**Returns hash of roots and area, tiles of pyramid depend only on them and on tile size*/
+	static long fingerprint(ComplexRootedPolynomial rootedPoly, Viewport area) {
+		long hash = 1125899906842597L;
+		for (Complex root : rootedPoly.getRoots()) {
+			hash = 31 * hash + Double.doubleToLongBits(root.getReal());
+			hash = 31 * hash + Double.doubleToLongBits(root.getImaginary());
+		}
+		hash = 31 * hash + Double.doubleToLongBits(area.getReMin());
+		hash = 31 * hash + Double.doubleToLongBits(area.getReMax());
+		hash = 31 * hash + Double.doubleToLongBits(area.getImMin());
+		return 31 * hash + Double.doubleToLongBits(area.getImMax());
+	}
+
+	public ComplexRootedPolynomial getRootedPoly() {
+		return rootedPoly;
+	}
+
+	/**Returns kernel used for tiles, it may be shared between threads*/
+	public INewtonKernel getKernel() {
+		return kernel;
+	}
+
+	public Viewport getArea() {
+		return area;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	public int getMaxLevel() {
+		return maxLevel;
+	}
+
+	/**Returns number of roots + 1*/
+	public short getOrder() {
+		return (short) (rootedPoly.getRoots().length + 1);
+	}
+
+	/**Returns number of tiles in each row and column of level*/
+	public int tilesPerAxis(int level) {
+		return 1 << level;
+	}
+
+	/**Returns distance between real parts of neighbouring pixels of level*/
+	public double reStep(int level) {
+		return (area.getReMax() - area.getReMin()) / ((long) tileSize << level);
+	}
+
+	/**Returns distance between imaginary parts of neighbouring pixels of level*/
+	public double imStep(int level) {
+		return (area.getImMax() - area.getImMin()) / ((long) tileSize << level);
+	}
+
+	/**Returns viewport whose edges are centers of edge pixels of tile, so that frame of that viewport with
+	 * tileSize x tileSize pixels is exactly the tile*/
+	public Viewport tileViewport(int level, int x, int y) {
+		double reStep = reStep(level);
+		double imStep = imStep(level);
+		return new Viewport(area.getReMin() + ((long) x * tileSize + 0.5) * reStep,
+				area.getReMin() + ((long) x * tileSize + tileSize - 0.5) * reStep,
+				area.getImMax() - ((long) y * tileSize + tileSize - 0.5) * imStep,
+				area.getImMax() - ((long) y * tileSize + 0.5) * imStep);
+	}
+
+	/**Returns true if tile is in store*/
+	public boolean isStored(int level, int x, int y) {
+		return store.contains(level, x, y);
+	}
+
+	/**Returns number of tiles in store*/
+	public int storedTiles() {
+		return store.tileCount();
+	}
+
+	/**Reads tile from store, or calculates it and stores it if it is missing. Tile is not stored if
+	 * calculation is cancelled.
+	 * @param tile array of tileSize * tileSize values that receives root index + 1 of each pixel
+	 * @return true if tile was calculated
+	 */
+	public boolean load(int level, int x, int y, short[] tile, AtomicBoolean cancel) {
+		if (store.read(level, x, y, tile))
+			return false;
+		Viewport viewport = tileViewport(level, x, y);
+		NewtonParallel.calculate(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(), viewport.getImMax(),
+				tileSize, tileSize, ITERATIONS, 0, tileSize - 1, tile, cancel, rootedPoly, kernel, null);
+		if (cancel.get())
+			return true;
+		try {
+			store.write(level, x, y, tile);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		store.close();
+	}
+}
@@ -0,0 +1,71 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hr.fer.zemris.java.fractals.NewtonParallel;
+
+/**Precomputes levels of tile pyramid, so that viewer can show them without calculation.
+ * Tiles that are already stored are skipped, so interrupted build continues where it stopped.
+ * @author gorsicleo
+ *
+ */
+public class TilePyramidBuilder {
+
+	private TilePyramid pyramid;
+	private ExecutorService executor;
+
+	/**Creates new builder
+	 * @param pyramid whose tiles are calculated
+	 * @param executor calculates tiles, null to calculate on calling thread
+	 */
+	public TilePyramidBuilder(TilePyramid pyramid, ExecutorService executor) {
+		this.pyramid = pyramid;
+		this.executor = executor;
+	}
+
+	/**Calculates and stores all missing tiles of levels 0 to <code>lastLevel</code>
+	 * @return number of calculated tiles
+	 */
+	public int build(int lastLevel, AtomicBoolean cancel) {
+		if (lastLevel > pyramid.getMaxLevel()) {
+			throw new IllegalArgumentException("Pyramid has only levels up to " + pyramid.getMaxLevel() + ".");
+		}
+		AtomicInteger calculated = new AtomicInteger();
+		for (int level = 0; level <= lastLevel; level++) {
+			List<Future<?>> tasks = new ArrayList<>();
+			int tiles = pyramid.tilesPerAxis(level);
+			for (int y = 0; y < tiles; y++) {
+				for (int x = 0; x < tiles; x++) {
+					if (cancel.get())
+						break;
+					if (pyramid.isStored(level, x, y))
+						continue;
+					int tileLevel = level;
+					int tileX = x;
+					int tileY = y;
+					Runnable task = () -> {
+						short[] tile = new short[pyramid.getTileSize() * pyramid.getTileSize()];
+						if (pyramid.load(tileLevel, tileX, tileY, tile, cancel) && !cancel.get()) {
+							calculated.incrementAndGet();
+						}
+					};
+					if (executor == null) {
+						task.run();
+					} else {
+						tasks.add(executor.submit(task));
+					}
+				}
+			}
+			for (Future<?> task : tasks) {
+				NewtonParallel.waitFor(task, "Tile calculation failed.");
+			}
+			System.out.println("Razina " + level + " gotova, izracunato plocica: " + calculated.get());
+		}
+		return calculated.get();
+	}
+}
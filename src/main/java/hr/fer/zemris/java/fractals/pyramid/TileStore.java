@@ -0,0 +1,163 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**Memory mapped file of square root-index tiles of a pyramid, with index of stored tiles.
+ * <p>File starts with 64 byte header (magic, version, tile size, deepest level, number of stored tiles and
+ * fingerprint of pyramid), followed by index with one int for every tile of every level (0 if tile is not
+ * stored, otherwise slot + 1) and by tile slots in order in which tiles were stored.
+ * Tile number of tile (level, x, y) is (4^level - 1) / 3 + y * 2^level + x.</p>
+ * <p>Tiles are written once and never change, so readers need no locking. Store must be closed to be
+ * sure that everything is written to disk.</p>
+ * @author gorsicleo
+ *
+ */
+public class TileStore implements AutoCloseable {
+
+	/**Deepest level that store supports, index of deeper pyramid would not fit in one mapping*/
+	public static final int MAX_LEVEL = 12;
+
+	private static final int MAGIC = 0x4E525450;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 64;
+	private static final int TILE_COUNT_POSITION = 24;
+	/**Number of tiles mapped together*/
+	private static final int TILES_PER_SEGMENT = 64;
+
+	private FileChannel channel;
+	private int tileSize;
+	private int maxLevel;
+	private long tileBytes;
+	private long dataStart;
+	/**header and index */
+	private MappedByteBuffer index;
+	/**mapped segments of tile slots, guarded by this */
+	private List<MappedByteBuffer> segments = new ArrayList<>();
+	/**number of stored tiles, guarded by this */
+	private int tileCount;
+
+	/**Opens store, creating it if file does not exist
+	 * @param file of store
+	 * @param tileSize width and height of tile in pixels
+	 * @param maxLevel deepest level of pyramid, at most {@value #MAX_LEVEL}
+	 * @param fingerprint identifies polynomial and area of pyramid, existing store must have the same one
+	 * @throws IOException if file cannot be opened
+	 * @throws IllegalArgumentException if existing file is not store of the same pyramid
+	 */
+	public TileStore(Path file, int tileSize, int maxLevel, long fingerprint) throws IOException {
+		if (tileSize < 1 || maxLevel < 0 || maxLevel > MAX_LEVEL) {
+			throw new IllegalArgumentException("Tile size must be positive and level between 0 and " + MAX_LEVEL + ".");
+		}
+		this.tileSize = tileSize;
+		this.maxLevel = maxLevel;
+		this.tileBytes = (long) tileSize * tileSize * Short.BYTES;
+		this.dataStart = HEADER_BYTES + (long) Integer.BYTES * tileNumber(maxLevel + 1, 0, 0);
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		boolean created = channel.size() == 0;
+		index = channel.map(MapMode.READ_WRITE, 0, dataStart);
+		if (created) {
+			index.putInt(0, MAGIC);
+			index.putInt(4, VERSION);
+			index.putInt(8, tileSize);
+			index.putInt(12, maxLevel);
+			index.putLong(16, fingerprint);
+			index.putInt(TILE_COUNT_POSITION, 0);
+		} else if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION || index.getInt(8) != tileSize
+				|| index.getInt(12) != maxLevel || index.getLong(16) != fingerprint) {
+			channel.close();
+			throw new IllegalArgumentException("File " + file + " is not tile store of this pyramid.");
+		}
+		tileCount = index.getInt(TILE_COUNT_POSITION);
+	}
+
+	/**Returns number of tile in index*/
+	static int tileNumber(int level, int x, int y) {
+		return ((1 << 2 * level) - 1) / 3 + (y << level) + x;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	public int getMaxLevel() {
+		return maxLevel;
+	}
+
+	/**Returns number of stored tiles*/
+	public synchronized int tileCount() {
+		return tileCount;
+	}
+
+	/**Returns true if tile is stored*/
+	public boolean contains(int level, int x, int y) {
+		return index.getInt(HEADER_BYTES + Integer.BYTES * tileNumber(level, x, y)) != 0;
+	}
+
+	/**Reads tile into given array of tileSize * tileSize values, row by row
+	 * @return true if tile was stored, otherwise array is not changed
+	 */
+	public boolean read(int level, int x, int y, short[] tile) {
+		int slot = index.getInt(HEADER_BYTES + Integer.BYTES * tileNumber(level, x, y)) - 1;
+		if (slot < 0)
+			return false;
+		segmentBuffer(slot).get(tile);
+		return true;
+	}
+
+	/**Stores tile, tile that is already stored is not written again
+	 * @param tile tileSize * tileSize root indexes, row by row
+	 */
+	public synchronized void write(int level, int x, int y, short[] tile) throws IOException {
+		if (tile.length != tileSize * tileSize) {
+			throw new IllegalArgumentException("Tile must have " + tileSize * tileSize + " pixels.");
+		}
+		int position = HEADER_BYTES + Integer.BYTES * tileNumber(level, x, y);
+		if (index.getInt(position) != 0)
+			return;
+		int slot = tileCount;
+		segmentBuffer(slot).put(tile);
+		tileCount++;
+		index.putInt(TILE_COUNT_POSITION, tileCount);
+		index.putInt(position, slot + 1);
+	}
+
+	/**Returns view of tile slot as shorts*/
+	private ShortBuffer segmentBuffer(int slot) {
+		MappedByteBuffer segment;
+		synchronized (this) {
+			while (segments.size() <= slot / TILES_PER_SEGMENT) {
+				try {
+					segments.add(channel.map(MapMode.READ_WRITE,
+							dataStart + segments.size() * TILES_PER_SEGMENT * tileBytes, TILES_PER_SEGMENT * tileBytes));
+				} catch (IOException e) {
+					throw new IllegalStateException("Tile segment cannot be mapped.", e);
+				}
+			}
+			segment = segments.get(slot / TILES_PER_SEGMENT);
+		}
+		ShortBuffer tile = segment.duplicate().asShortBuffer();
+		int start = (int) (slot % TILES_PER_SEGMENT * tileBytes / Short.BYTES);
+		tile.position(start);
+		tile.limit(start + tileSize * tileSize);
+		return tile;
+	}
+
+	/**Writes mapped tiles and index to disk and closes file*/
+	@Override
+	public synchronized void close() throws IOException {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+		index.force();
+		channel.close();
+	}
+}
@@ -0,0 +1,55 @@
+package hr.fer.zemris.java.fractals.server;
+
+import java.util.Arrays;
+
+/**Keeps latest request latencies in ring buffer and computes percentiles over them.
+ * @author gorsicleo
+ *
+ */
+public class LatencyRecorder {
+
+	private long[] samples;
+	private int next;
+	private int size;
+	private long total;
+
+	/**Creates recorder that keeps at most <code>capacity</code> latest samples*/
+	public LatencyRecorder(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive.");
+		}
+		samples = new long[capacity];
+	}
+
+	/**Records latency of one request in nanoseconds*/
+	public synchronized void record(long nanos) {
+		samples[next] = nanos;
+		next = (next + 1) % samples.length;
+		size = Math.min(size + 1, samples.length);
+		total++;
+	}
+
+	/**Returns number of all recorded requests*/
+	public synchronized long count() {
+		return total;
+	}
+
+	/**Returns latencies in nanoseconds at given percentiles (0 to 100) of latest samples,
+	 * or zeros if nothing was recorded*/
+	public long[] percentiles(double... percentiles) {
+		long[] sorted;
+		synchronized (this) {
+			sorted = Arrays.copyOf(samples, size);
+		}
+		Arrays.sort(sorted);
+
+		long[] result = new long[percentiles.length];
+		if (sorted.length == 0)
+			return result;
+		for (int i = 0; i < percentiles.length; i++) {
+			int index = (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1;
+			result[i] = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+		}
+		return result;
+	}
+}
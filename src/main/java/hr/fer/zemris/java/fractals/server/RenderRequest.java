@@ -0,0 +1,151 @@
+package hr.fer.zemris.java.fractals.server;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import hr.fer.zemris.java.fractals.Newton;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Models single render request: roots of polynomial, viewport and size of frame.
+ * Two requests are equal if they would produce the same frame, so equal requests can share computation.
+ * @author gorsicleo
+ *
+ */
+public class RenderRequest {
+
+	/**Maximum number of pixels in one frame*/
+	public static final int MAX_PIXELS = 4096 * 4096;
+
+	private double[] rootsReal;
+	private double[] rootsImaginary;
+	private Viewport viewport;
+	private int width;
+	private int height;
+
+	/**Creates new request
+	 * @throws IllegalArgumentException if there are less than two roots or size is not valid
+	 */
+	public RenderRequest(Complex[] roots, Viewport viewport, int width, int height) {
+		if (roots.length < 2) {
+			throw new IllegalArgumentException("At least two roots are needed.");
+		}
+		if (width < 2 || height < 2 || (long) width * height > MAX_PIXELS) {
+			throw new IllegalArgumentException("Frame size must be at least 2x2 and at most " + MAX_PIXELS + " pixels.");
+		}
+		rootsReal = new double[roots.length];
+		rootsImaginary = new double[roots.length];
+		for (int i = 0; i < roots.length; i++) {
+			rootsReal[i] = roots[i].getReal();
+			rootsImaginary[i] = roots[i].getImaginary();
+		}
+		this.viewport = viewport;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**Parses request from URL query such as
+	 * <code>roots=1;-1;i;-%20i&amp;reMin=-2&amp;reMax=2&amp;imMin=-2&amp;imMax=2&amp;width=400&amp;height=400</code>.
+	 * Roots are separated by ';' and written as in {@link Newton#parseComplex(String)},
+	 * '+' must be encoded as %2B.
+	 * @param query raw query part of URL
+	 * @return parsed request
+	 * @throws IllegalArgumentException if query is not valid request
+	 */
+	public static RenderRequest parse(String query) {
+		Map<String, String> parameters = new HashMap<>();
+		if (query != null) {
+			for (String pair : query.split("&")) {
+				int index = pair.indexOf('=');
+				if (index > 0) {
+					parameters.put(pair.substring(0, index),
+							URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+				}
+			}
+		}
+
+		String[] rootParts = required(parameters, "roots").split(";");
+		Complex[] roots = new Complex[rootParts.length];
+		for (int i = 0; i < rootParts.length; i++) {
+			try {
+				roots[i] = Newton.parseComplex(rootParts[i].trim());
+			} catch (RuntimeException e) {
+				// parser of console input fails with various exceptions on malformed numbers
+				throw new IllegalArgumentException("Parse error: invalid root '" + rootParts[i] + "'.", e);
+			}
+		}
+		try {
+			Viewport viewport = new Viewport(Double.parseDouble(required(parameters, "reMin")),
+					Double.parseDouble(required(parameters, "reMax")), Double.parseDouble(required(parameters, "imMin")),
+					Double.parseDouble(required(parameters, "imMax")));
+			return new RenderRequest(roots, viewport, Integer.parseInt(required(parameters, "width")),
+					Integer.parseInt(required(parameters, "height")));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Parse error: viewport and size must be numbers.");
+		}
+	}
+
+	private static String required(Map<String, String> parameters, String name) {
+		String value = parameters.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing parameter: " + name);
+		}
+		return value;
+	}
+
+	/**Returns polynomial with roots of this request and constant 1*/
+	public ComplexRootedPolynomial toRootedPolynomial() {
+		Complex[] roots = new Complex[rootsReal.length];
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = new Complex(rootsReal[i], rootsImaginary[i]);
+		}
+		return new ComplexRootedPolynomial(Complex.ONE, roots);
+	}
+
+	/**Returns key that is equal for requests with same roots, in same order*/
+	public String rootsKey() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < rootsReal.length; i++) {
+			sb.append(rootsReal[i]).append(',').append(rootsImaginary[i]).append(';');
+		}
+		return sb.toString();
+	}
+
+	public Viewport getViewport() {
+		return viewport;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 31 * Arrays.hashCode(rootsReal) + Arrays.hashCode(rootsImaginary);
+		result = 31 * result + Double.hashCode(viewport.getReMin());
+		result = 31 * result + Double.hashCode(viewport.getReMax());
+		result = 31 * result + Double.hashCode(viewport.getImMin());
+		result = 31 * result + Double.hashCode(viewport.getImMax());
+		return 31 * (31 * result + width) + height;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof RenderRequest))
+			return false;
+		RenderRequest other = (RenderRequest) obj;
+		return Arrays.equals(rootsReal, other.rootsReal) && Arrays.equals(rootsImaginary, other.rootsImaginary)
+				&& viewport.getReMin() == other.viewport.getReMin() && viewport.getReMax() == other.viewport.getReMax()
+				&& viewport.getImMin() == other.viewport.getImMin() && viewport.getImMax() == other.viewport.getImMax()
+				&& width == other.width && height == other.height;
+	}
+
+}
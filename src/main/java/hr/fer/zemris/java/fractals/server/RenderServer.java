@@ -0,0 +1,192 @@
+package hr.fer.zemris.java.fractals.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.NewtonParallel.FractalProducerParallelImpl;
+import hr.fer.zemris.java.fractals.RequestScheduler;
+import hr.fer.zemris.java.fractals.RunLengthCodec;
+
+/**Long running HTTP server on localhost that renders Newton-Raphson fractals for many clients.
+ * <ul>
+ * <li><code>GET /render?roots=...&amp;reMin=...&amp;reMax=...&amp;imMin=...&amp;imMax=...&amp;width=...&amp;height=...</code>
+ * returns root index of each pixel as big endian shorts, row by row (see {@link RenderRequest#parse(String)}).
+ * Number of roots + 1 is sent in header X-Fractal-Order. Client that accepts {@value RunLengthCodec#CONTENT_TYPE}
+ * gets frame in format of {@link RunLengthCodec} instead, which is streamed as it is encoded.
+ * Overloaded server answers with 503 and Retry-After header.</li>
+ * <li><code>GET /stats</code> returns request counters and latency percentiles as plain text.</li>
+ * </ul>
+ * Arguments: --port=N, --concurrent=N (frames calculated at once), --queue=N (frames waiting),
+ * --timeout=N (seconds client waits for result) and parallelization arguments of {@link NewtonParallel}.
+ * @author gorsicleo
+ *
+ */
+public class RenderServer {
+
+	private static final String PORT_ARGUMENT = "--port=";
+	private static final String CONCURRENT_ARGUMENT = "--concurrent=";
+	private static final String QUEUE_ARGUMENT = "--queue=";
+	private static final String TIMEOUT_ARGUMENT = "--timeout=";
+
+	private RenderService service;
+	private LatencyRecorder latency = new LatencyRecorder(10_000);
+	private HttpServer server;
+	private ExecutorService handlers;
+	private int timeoutSeconds;
+
+	/**Creates server on given localhost port, server is not started
+	 * @param port on localhost, 0 for any free port
+	 * @param service that calculates frames
+	 * @param handlerThreads number of threads that handle connections
+	 * @param timeoutSeconds how long client waits for result
+	 */
+	public RenderServer(int port, RenderService service, int handlerThreads, int timeoutSeconds) throws IOException {
+		this.service = service;
+		this.timeoutSeconds = timeoutSeconds;
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		handlers = Executors.newFixedThreadPool(handlerThreads);
+		server.setExecutor(handlers);
+		server.createContext("/render", this::handleRender);
+		server.createContext("/stats", this::handleStats);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	/**Returns port that server listens on*/
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**Stops server and cancels all calculations*/
+	public void stop() {
+		server.stop(0);
+		service.shutdown();
+		handlers.shutdownNow();
+	}
+
+	private void handleRender(HttpExchange exchange) throws IOException {
+		long start = System.nanoTime();
+		try {
+			RenderRequest request;
+			try {
+				request = RenderRequest.parse(exchange.getRequestURI().getRawQuery());
+			} catch (IllegalArgumentException e) {
+				sendText(exchange, 400, e.getMessage());
+				return;
+			}
+
+			CompletableFuture<RenderService.RenderResult> future = null;
+			RenderService.RenderResult result;
+			try {
+				future = service.submit(request);
+				result = future.get(timeoutSeconds, TimeUnit.SECONDS);
+			} catch (RejectedExecutionException | CancellationException e) {
+				sendOverloaded(exchange);
+				return;
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RejectedExecutionException) {
+					sendOverloaded(exchange);
+				} else {
+					sendText(exchange, 500, "Render failed: " + e.getCause());
+				}
+				return;
+			} catch (TimeoutException e) {
+				service.abandon(request, future);
+				sendText(exchange, 504, "Render did not finish in " + timeoutSeconds + " s.");
+				return;
+			} catch (InterruptedException e) {
+				service.abandon(request, future);
+				Thread.currentThread().interrupt();
+				sendOverloaded(exchange);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("X-Fractal-Order", Short.toString(result.getOrder()));
+			if (acceptsRunLength(exchange)) {
+				exchange.getResponseHeaders().set("Content-Type", RunLengthCodec.CONTENT_TYPE);
+				exchange.sendResponseHeaders(200, 0);
+				try (OutputStream os = exchange.getResponseBody()) {
+					RunLengthCodec.write(os, result.getData(), request.getWidth(), request.getHeight(),
+							result.getOrder());
+				}
+			} else {
+				ByteBuffer body = ByteBuffer.allocate(result.getData().length * Short.BYTES);
+				body.asShortBuffer().put(result.getData());
+				exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+				exchange.sendResponseHeaders(200, body.capacity());
+				try (OutputStream os = exchange.getResponseBody()) {
+					os.write(body.array());
+				}
+			}
+			latency.record(System.nanoTime() - start);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void handleStats(HttpExchange exchange) throws IOException {
+		try {
+			long[] p = latency.percentiles(50, 90, 99, 100);
+			String stats = String.format("completed=%d%nsubmitted=%d%ncoalesced=%d%nrejected=%d%npending=%d%n"
+					+ "p50_ms=%.2f%np90_ms=%.2f%np99_ms=%.2f%nmax_ms=%.2f%n", latency.count(),
+					service.submittedCount(), service.coalescedCount(), service.rejectedCount(), service.pending(),
+					p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, p[3] / 1e6);
+			sendText(exchange, 200, stats);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static boolean acceptsRunLength(HttpExchange exchange) {
+		String accept = exchange.getRequestHeaders().getFirst("Accept");
+		return accept != null && accept.contains(RunLengthCodec.CONTENT_TYPE);
+	}
+
+	private static void sendOverloaded(HttpExchange exchange) throws IOException {
+		exchange.getResponseHeaders().set("Retry-After", "1");
+		sendText(exchange, 503, "Server is overloaded, try again later.");
+	}
+
+	private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] body = text.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(body);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = Integer.parseInt(NewtonParallel.argument(args, PORT_ARGUMENT, "8080"));
+		int concurrent = Integer.parseInt(NewtonParallel.argument(args, CONCURRENT_ARGUMENT, "2"));
+		int queue = Integer.parseInt(NewtonParallel.argument(args, QUEUE_ARGUMENT, "16"));
+		int timeout = Integer.parseInt(NewtonParallel.argument(args, TIMEOUT_ARGUMENT, "30"));
+		int[] parallelization = NewtonParallel.parseArgs(args);
+
+		RequestScheduler scheduler = new RequestScheduler(parallelization[0], false);
+		RenderService service = new RenderService(
+				roots -> new FractalProducerParallelImpl(roots, parallelization[1], false, scheduler), concurrent,
+				queue);
+		RenderServer server = new RenderServer(port, service, 2 * (concurrent + queue) + 2, timeout);
+		server.start();
+		System.out.println("Render server slusa na http://localhost:" + server.getPort() + "/render");
+	}
+}
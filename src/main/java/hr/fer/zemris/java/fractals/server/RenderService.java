@@ -0,0 +1,214 @@
+package hr.fer.zemris.java.fractals.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Runs render requests on fractal producer with request coalescing and admission control.
+ * Identical requests that arrive while one of them is calculated share single calculation.
+ * Producers are kept for the {@value #CACHED_PRODUCERS} most recently used polynomials, so expanded polynomial,
+ * kernel and row costs of producer are reused by later requests for the same polynomial.
+ * At most <code>concurrentRenders</code> frames are calculated at once and at most <code>queueLimit</code>
+ * wait for calculation; requests over that limit are rejected immediately instead of piling up.
+ * Calculation whose clients all stopped waiting (see {@link #abandon(RenderRequest, CompletableFuture)}) is cancelled, so it does
+ * not keep its place.
+ * @author gorsicleo
+ *
+ */
+public class RenderService {
+
+	/**Calculated frame*/
+	public static class RenderResult {
+		private short[] data;
+		private short order;
+
+		private RenderResult(short[] data, short order) {
+			this.data = data;
+			this.order = order;
+		}
+
+		/**Returns root index for each pixel, row by row*/
+		public short[] getData() {
+			return data;
+		}
+
+		/**Returns number of roots + 1*/
+		public short getOrder() {
+			return order;
+		}
+	}
+
+	/**Calculation shared by identical requests*/
+	private static class Job {
+		private CompletableFuture<RenderResult> result = new CompletableFuture<>();
+		private AtomicBoolean cancel = new AtomicBoolean(false);
+		/**calculation given to executor */
+		private Runnable task;
+		/**number of clients that wait for result, guarded by this */
+		private int waiting = 1;
+	}
+
+	/**Number of polynomials whose producers are kept*/
+	public static final int CACHED_PRODUCERS = 16;
+
+	private Function<ComplexRootedPolynomial, IFractalProducer> producers;
+	/**producers by roots of request, in access order so least recently used is evicted first, guarded by itself */
+	private Map<String, IFractalProducer> cachedProducers = new LinkedHashMap<String, IFractalProducer>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, IFractalProducer> eldest) {
+			return size() > CACHED_PRODUCERS;
+		}
+	};
+	private ThreadPoolExecutor executor;
+	private ConcurrentHashMap<RenderRequest, Job> inFlight = new ConcurrentHashMap<>();
+	private AtomicLong requestNo = new AtomicLong();
+	private AtomicBoolean cancel = new AtomicBoolean(false);
+
+	private AtomicLong submitted = new AtomicLong();
+	private AtomicLong coalesced = new AtomicLong();
+	private AtomicLong rejected = new AtomicLong();
+
+	/**Creates new service
+	 * @param producers creates producer for polynomial of request. Producer is shared by concurrent requests for
+	 * same polynomial and is dropped without being closed, so it must not own threads
+	 * @param concurrentRenders maximum number of frames calculated at once
+	 * @param queueLimit maximum number of frames waiting for calculation
+	 */
+	public RenderService(Function<ComplexRootedPolynomial, IFractalProducer> producers, int concurrentRenders,
+			int queueLimit) {
+		if (concurrentRenders < 1 || queueLimit < 0) {
+			throw new IllegalArgumentException("Concurrent renders must be positive and queue limit non negative.");
+		}
+		this.producers = producers;
+		this.executor = new ThreadPoolExecutor(concurrentRenders, concurrentRenders, 0, TimeUnit.MILLISECONDS,
+				queueLimit == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueLimit));
+	}
+
+	/**Submits request. If identical request is already being calculated, its result is shared.
+	 * @param request to be calculated
+	 * @return future result of request
+	 * @throws RejectedExecutionException if service is overloaded
+	 */
+	public CompletableFuture<RenderResult> submit(RenderRequest request) {
+		submitted.incrementAndGet();
+		while (true) {
+			Job created = new Job();
+			created.task = () -> render(request, created);
+			Job existing = inFlight.putIfAbsent(request, created);
+			if (existing == null) {
+				try {
+					executor.execute(created.task);
+				} catch (RejectedExecutionException e) {
+					inFlight.remove(request, created);
+					rejected.incrementAndGet();
+					created.result.completeExceptionally(e);
+					throw e;
+				}
+				return created.result;
+			}
+			synchronized (existing) {
+				// abandoned job is cancelled, so request needs new one
+				if (existing.waiting > 0) {
+					existing.waiting++;
+					coalesced.incrementAndGet();
+					return existing.result;
+				}
+			}
+			inFlight.remove(request, existing);
+		}
+	}
+
+	/**Tells service that one client of request stopped waiting for its result, for example because it timed
+	 * out. When no client waits any more, calculation is cancelled and frees its place.
+	 * @param request that was submitted
+	 * @param result future returned by {@link #submit(RenderRequest)} for that request
+	 */
+	public void abandon(RenderRequest request, CompletableFuture<RenderResult> result) {
+		Job job = inFlight.get(request);
+		if (job == null || job.result != result)
+			return;
+		synchronized (job) {
+			if (job.waiting == 0 || --job.waiting > 0)
+				return;
+			job.cancel.set(true);
+		}
+		inFlight.remove(request, job);
+		executor.remove(job.task);
+		job.result.cancel(false);
+	}
+
+	private void render(RenderRequest request, Job job) {
+		CompletableFuture<RenderResult> result = job.result;
+		try {
+			if (cancel.get() || job.cancel.get()) {
+				result.cancel(false);
+				return;
+			}
+			IFractalProducer producer = producer(request);
+			producer.produce(request.getViewport().getReMin(), request.getViewport().getReMax(),
+					request.getViewport().getImMin(), request.getViewport().getImMax(), request.getWidth(),
+					request.getHeight(), requestNo.incrementAndGet(),
+					(data, order, no) -> result.complete(new RenderResult(data, order)), job.cancel);
+			if (!result.isDone()) {
+				if (job.cancel.get()) {
+					result.cancel(false);
+				} else {
+					result.completeExceptionally(new IllegalStateException("Producer did not deliver result."));
+				}
+			}
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		} finally {
+			inFlight.remove(request, job);
+		}
+	}
+
+	/**Returns cached producer for polynomial of request, creating it if there is none*/
+	private IFractalProducer producer(RenderRequest request) {
+		synchronized (cachedProducers) {
+			return cachedProducers.computeIfAbsent(request.rootsKey(),
+					key -> producers.apply(request.toRootedPolynomial()));
+		}
+	}
+
+	/**Returns number of requests that are being calculated or wait for calculation*/
+	public int pending() {
+		return executor.getActiveCount() + executor.getQueue().size();
+	}
+
+	public long submittedCount() {
+		return submitted.get();
+	}
+
+	public long coalescedCount() {
+		return coalesced.get();
+	}
+
+	public long rejectedCount() {
+		return rejected.get();
+	}
+
+	/**Cancels all calculations and stops accepting requests*/
+	public void shutdown() {
+		cancel.set(true);
+		executor.shutdownNow();
+		for (Job job : inFlight.values()) {
+			job.cancel.set(true);
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package hr.fer.zemris.math;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**Finds all roots of polynomial at once with Aberth-Ehrlich iteration. Each approximation z_k is moved by
+ * w_k = p(z_k) / (p'(z_k) - p(z_k) * sum_{j != k} 1 / (z_k - z_j)), which is Newton step for p divided by
+ * other approximations, so approximations repel each other and converge to different roots, cubically
+ * for simple roots. All corrections of one iteration are calculated from previous approximations, so they
+ * are independent and are calculated in parallel for polynomials with at least {@value #PARALLEL_THRESHOLD}
+ * roots; result does not depend on parallelization.
+ * <p>Initial approximations are placed on circles whose radii are given by upper convex hull of points
+ * (i, log|a_i|) (Newton polygon), so they start near moduli of roots even when moduli differ a lot.
+ * Approximation stops moving when |p(z)| is below bound of rounding error of Horner evaluation at z,
+ * 2n * epsilon * sum |a_i| |z|^i, or when its correction is below epsilon * |z|.</p>
+ * @author gorsicleo
+ *
+ */
+class AberthSolver {
+
+	/**Number of roots from which corrections are calculated in parallel*/
+	static final int PARALLEL_THRESHOLD = 256;
+	/**Number of roots corrected by one parallel task*/
+	private static final int ROOTS_PER_TASK = 64;
+	static final int MAX_ITERATIONS = 500;
+	private static final double EPSILON = Math.ulp(1.0);
+
+	private int degree;
+	/**coefficients, index i belongs to z^i */
+	private double[] aRe;
+	private double[] aIm;
+	private double[] aAbs;
+
+	private double[] re;
+	private double[] im;
+	private double[] nextRe;
+	private double[] nextIm;
+	private boolean[] converged;
+
+	private AberthSolver(double[] aRe, double[] aIm) {
+		this.degree = aRe.length - 1;
+		this.aRe = aRe;
+		this.aIm = aIm;
+		this.aAbs = new double[aRe.length];
+		for (int i = 0; i <= degree; i++) {
+			aAbs[i] = Math.hypot(aRe[i], aIm[i]);
+		}
+		this.re = new double[degree];
+		this.im = new double[degree];
+		this.nextRe = new double[degree];
+		this.nextIm = new double[degree];
+		this.converged = new boolean[degree];
+	}
+
+	/**Returns all roots of polynomial with given coefficients, repeated roots are returned as many times as
+	 * their multiplicity. Leading zero coefficients are ignored.
+	 * @param coefficients coefficient at index i belongs to z^i
+	 * @throws IllegalArgumentException if polynomial is constant
+	 */
+	static Complex[] roots(List<Complex> coefficients) {
+		int highest = coefficients.size() - 1;
+		while (highest >= 0 && isZero(coefficients.get(highest))) {
+			highest--;
+		}
+		if (highest < 1) {
+			throw new IllegalArgumentException("Polynomial must have at least one root.");
+		}
+		int zeroRoots = 0;
+		while (isZero(coefficients.get(zeroRoots))) {
+			zeroRoots++;
+		}
+
+		Complex[] roots = new Complex[highest];
+		for (int i = 0; i < zeroRoots; i++) {
+			roots[i] = Complex.ZERO;
+		}
+		if (zeroRoots == highest)
+			return roots;
+
+		double[] aRe = new double[highest - zeroRoots + 1];
+		double[] aIm = new double[aRe.length];
+		for (int i = 0; i < aRe.length; i++) {
+			aRe[i] = coefficients.get(i + zeroRoots).getReal();
+			aIm[i] = coefficients.get(i + zeroRoots).getImaginary();
+		}
+		AberthSolver solver = new AberthSolver(aRe, aIm);
+		solver.solve();
+		for (int k = 0; k < solver.degree; k++) {
+			roots[zeroRoots + k] = new Complex(solver.re[k], solver.im[k]);
+		}
+		return roots;
+	}
+
+	private static boolean isZero(Complex c) {
+		return c.getReal() == 0 && c.getImaginary() == 0;
+	}
+
+	/**Iterates until all approximations stop or {@value #MAX_ITERATIONS} iterations
+	 * @return number of iterations
+	 */
+	private int solve() {
+		initialApproximations();
+		for (int iteration = 1; iteration <= MAX_ITERATIONS; iteration++) {
+			if (degree >= PARALLEL_THRESHOLD) {
+				ForkJoinPool.commonPool().invoke(new CorrectionTask(0, degree));
+			} else {
+				correct(0, degree);
+			}
+			double[] swap = re;
+			re = nextRe;
+			nextRe = swap;
+			swap = im;
+			im = nextIm;
+			nextIm = swap;
+
+			boolean done = true;
+			for (boolean c : converged) {
+				done &= c;
+			}
+			if (done)
+				return iteration;
+		}
+		return MAX_ITERATIONS;
+	}
+
+	/**Places approximations on circles of Newton polygon, with angles shifted from circle to circle*/
+	private void initialApproximations() {
+		int[] hull = new int[degree + 1];
+		int size = 0;
+		for (int i = 0; i <= degree; i++) {
+			if (aAbs[i] == 0)
+				continue;
+			while (size >= 2 && !turnsRight(hull[size - 2], hull[size - 1], i)) {
+				size--;
+			}
+			hull[size++] = i;
+		}
+
+		int k = 0;
+		for (int h = 1; h < size; h++) {
+			int from = hull[h - 1];
+			int to = hull[h];
+			int count = to - from;
+			double radius = Math.pow(aAbs[from] / aAbs[to], 1.0 / count);
+			for (int j = 0; j < count; j++) {
+				double angle = 2 * Math.PI * j / count + 2 * Math.PI * h / degree + 0.4;
+				re[k] = radius * Math.cos(angle);
+				im[k] = radius * Math.sin(angle);
+				k++;
+			}
+		}
+	}
+
+	/**Returns true if point c is below line through points a and b of (i, log|a_i|), so b stays on upper hull*/
+	private boolean turnsRight(int a, int b, int c) {
+		double la = Math.log(aAbs[a]);
+		double lb = Math.log(aAbs[b]);
+		double lc = Math.log(aAbs[c]);
+		return (b - a) * (lc - la) - (c - a) * (lb - la) < 0;
+	}
+
+	/**Calculates next approximations of roots from <code>from</code> to <code>to</code> - 1*/
+	private void correct(int from, int to) {
+		for (int k = from; k < to; k++) {
+			double zr = re[k];
+			double zi = im[k];
+			if (converged[k]) {
+				nextRe[k] = zr;
+				nextIm[k] = zi;
+				continue;
+			}
+
+			double pr = aRe[degree];
+			double pi = aIm[degree];
+			double dr = 0;
+			double di = 0;
+			double modulus = Math.hypot(zr, zi);
+			double bound = aAbs[degree];
+			for (int i = degree - 1; i >= 0; i--) {
+				double t = dr * zr - di * zi + pr;
+				di = dr * zi + di * zr + pi;
+				dr = t;
+				t = pr * zr - pi * zi + aRe[i];
+				pi = pr * zi + pi * zr + aIm[i];
+				pr = t;
+				bound = bound * modulus + aAbs[i];
+			}
+			if (Math.hypot(pr, pi) <= 2 * degree * EPSILON * bound) {
+				converged[k] = true;
+				nextRe[k] = zr;
+				nextIm[k] = zi;
+				continue;
+			}
+
+			double sr = 0;
+			double si = 0;
+			for (int j = 0; j < degree; j++) {
+				if (j == k)
+					continue;
+				double ur = zr - re[j];
+				double ui = zi - im[j];
+				double norm = ur * ur + ui * ui;
+				sr += ur / norm;
+				si -= ui / norm;
+			}
+			// w = p / (p' - p * s)
+			double denominatorRe = dr - (pr * sr - pi * si);
+			double denominatorIm = di - (pr * si + pi * sr);
+			double norm = denominatorRe * denominatorRe + denominatorIm * denominatorIm;
+			double wr = (pr * denominatorRe + pi * denominatorIm) / norm;
+			double wi = (pi * denominatorRe - pr * denominatorIm) / norm;
+			if (!Double.isFinite(wr) || !Double.isFinite(wi)) {
+				// approximation hit another one or critical point, move it slightly to break tie
+				wr = -1e-7 * (1 + modulus);
+				wi = 0;
+			}
+			if (Math.hypot(wr, wi) <= EPSILON * modulus) {
+				converged[k] = true;
+			}
+			nextRe[k] = zr - wr;
+			nextIm[k] = zi - wi;
+		}
+	}
+
+	/**Corrects range of roots, splitting it in halves until it is small enough*/
+	private class CorrectionTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int from;
+		private int to;
+
+		private CorrectionTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= ROOTS_PER_TASK) {
+				correct(from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new CorrectionTask(from, middle), new CorrectionTask(middle, to));
+		}
+	}
+}
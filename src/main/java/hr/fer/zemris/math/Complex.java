@@ -36,6 +36,16 @@ public class Complex {
     }
     
    
+    /**Returns real part of complex number*/
+    public double getReal() {
+        return real;
+    }
+
+    /**Returns imaginary part of complex number*/
+    public double getImaginary() {
+        return imaginary;
+    }
+    
     /**Returns module of complex number
      * @return module (distance of complex number from root of coordinate system)
      */
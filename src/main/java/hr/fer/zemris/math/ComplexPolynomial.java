@@ -1,6 +1,5 @@
 package hr.fer.zemris.math;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**Models complex polynomial.
@@ -9,6 +8,9 @@ import java.util.List;
  */
 public class ComplexPolynomial {
 	
+	/**Number of coefficients both polynomials must have for multiplication to use FFT*/
+	static final int FFT_THRESHOLD = 64;
+	
 	/**List of polynomial coefficients*/
 	private List<Complex> coef;
 
@@ -17,28 +19,132 @@ public class ComplexPolynomial {
 		coef = List.of(factors);
 	}
 
+	/**Returns unmodifiable list of coefficients, coefficient at index i belongs to z^i*/
+	public List<Complex> getCoefficients() {
+		return coef;
+	}
+
 	/**Returns biggest polynomial exponent. For (7+2i)z^3+2z^2+5z+1 returns 3*/
 	public short order() {
 		return (short) (coef.size() - 1);
 	}
 
 	
-	/**Multiplies two polynomials
+	/**Multiplies two polynomials. When both polynomials have at least {@value #FFT_THRESHOLD} coefficients
+	 * multiplication is done with fast Fourier transform in O(n log n), otherwise directly in O(n^2).
 	 * @param p another polynomial 
 	 * @return ComplexPolynomial result of multiplication
 	 */
 	public ComplexPolynomial multiply(ComplexPolynomial p) {
-		Complex[] poly = new Complex[coef.size()-1 + p.coef.size()-1+1];
-		Arrays.fill(poly,new Complex());
-		
-		for (int i = 0; i < coef.size(); i++ ) {
-			Complex multiplier = coef.get(i);
+		int size = coef.size() - 1 + p.coef.size() - 1 + 1;
+		double[] resultReal = new double[size];
+		double[] resultImaginary = new double[size];
+
+		if (Math.min(coef.size(), p.coef.size()) >= FFT_THRESHOLD) {
+			multiplyFFT(p, resultReal, resultImaginary);
+		} else {
+			multiplyDirect(p, resultReal, resultImaginary);
+		}
+
+		Complex[] poly = new Complex[size];
+		for (int i = 0; i < size; i++) {
+			poly[i] = new Complex(resultReal[i], resultImaginary[i]);
+		}
+		return new ComplexPolynomial(poly);
+	}
+
+	/**Multiplies coefficient by coefficient and accumulates into result*/
+	private void multiplyDirect(ComplexPolynomial p, double[] resultReal, double[] resultImaginary) {
+		for (int i = 0; i < coef.size(); i++) {
+			double re = coef.get(i).getReal();
+			double im = coef.get(i).getImaginary();
 			for (int j = 0; j < p.coef.size(); j++) {
-				Complex result = multiplier.multiply(p.coef.get(j));
-				poly[i+j] = poly[i+j].add(result);
+				double otherRe = p.coef.get(j).getReal();
+				double otherIm = p.coef.get(j).getImaginary();
+				resultReal[i + j] += re * otherRe - im * otherIm;
+				resultImaginary[i + j] += re * otherIm + im * otherRe;
+			}
+		}
+	}
+
+	/**Transforms both polynomials, multiplies them pointwise and transforms product back*/
+	private void multiplyFFT(ComplexPolynomial p, double[] resultReal, double[] resultImaginary) {
+		int n = Integer.highestOneBit(resultReal.length - 1) << 1;
+		double[] aRe = new double[n];
+		double[] aIm = new double[n];
+		double[] bRe = new double[n];
+		double[] bIm = new double[n];
+		copyCoefficients(coef, aRe, aIm);
+		copyCoefficients(p.coef, bRe, bIm);
+
+		double[] cos = new double[n / 2];
+		double[] sin = new double[n / 2];
+		for (int k = 0; k < n / 2; k++) {
+			cos[k] = Math.cos(2 * Math.PI * k / n);
+			sin[k] = Math.sin(2 * Math.PI * k / n);
+		}
+
+		fft(aRe, aIm, cos, sin, false);
+		fft(bRe, bIm, cos, sin, false);
+		for (int i = 0; i < n; i++) {
+			double re = aRe[i] * bRe[i] - aIm[i] * bIm[i];
+			aIm[i] = aRe[i] * bIm[i] + aIm[i] * bRe[i];
+			aRe[i] = re;
+		}
+		fft(aRe, aIm, cos, sin, true);
+
+		for (int i = 0; i < resultReal.length; i++) {
+			resultReal[i] = aRe[i] / n;
+			resultImaginary[i] = aIm[i] / n;
+		}
+	}
+
+	private static void copyCoefficients(List<Complex> coef, double[] re, double[] im) {
+		for (int i = 0; i < coef.size(); i++) {
+			re[i] = coef.get(i).getReal();
+			im[i] = coef.get(i).getImaginary();
+		}
+	}
+
+	/**In-place iterative radix-2 Cooley-Tukey transform. Length must be power of two,
+	 * cos and sin hold n/2 twiddle factors for angle 2*pi*k/n. Inverse transform is not scaled by 1/n.
+	 */
+	private static void fft(double[] re, double[] im, double[] cos, double[] sin, boolean inverse) {
+		int n = re.length;
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				double temp = re[i];
+				re[i] = re[j];
+				re[j] = temp;
+				temp = im[i];
+				im[i] = im[j];
+				im[j] = temp;
+			}
+		}
+
+		for (int length = 2; length <= n; length <<= 1) {
+			int half = length / 2;
+			int step = n / length;
+			for (int start = 0; start < n; start += length) {
+				for (int k = 0; k < half; k++) {
+					double wRe = cos[k * step];
+					double wIm = inverse ? sin[k * step] : -sin[k * step];
+					int u = start + k;
+					int v = u + half;
+					double vRe = re[v] * wRe - im[v] * wIm;
+					double vIm = re[v] * wIm + im[v] * wRe;
+					re[v] = re[u] - vRe;
+					im[v] = im[u] - vIm;
+					re[u] += vRe;
+					im[u] += vIm;
+				}
 			}
 		}
-		return new ComplexPolynomial(poly);
 	}
 
 
@@ -54,6 +160,17 @@ public class ComplexPolynomial {
 		return new ComplexPolynomial(poly);
 	}
 
+	/**Finds all roots of this polynomial with Aberth-Ehrlich iteration and returns it in rooted form.
+	 * Leading zero coefficients are ignored. For polynomials with at least {@value AberthSolver#PARALLEL_THRESHOLD}
+	 * roots, iteration runs in parallel.
+	 * @return ComplexRootedPolynomial with same leading coefficient and computed roots
+	 * @throws IllegalArgumentException if polynomial is constant
+	 */
+	public ComplexRootedPolynomial toRootedPolynomial() {
+		Complex[] roots = AberthSolver.roots(coef);
+		return new ComplexRootedPolynomial(coef.get(roots.length), roots);
+	}
+
 	/**computes polynomial value at given point z
 	 * @param z point for evaluating polynomial
 	 * @return
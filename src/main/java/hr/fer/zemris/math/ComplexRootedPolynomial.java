@@ -1,5 +1,10 @@
 package hr.fer.zemris.math;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * Models complex polynomial in format of polynomial with factorized roots.
  * 
@@ -8,6 +13,9 @@ package hr.fer.zemris.math;
  */
 public class ComplexRootedPolynomial {
 
+	/** Number of roots from which product tree is expanded in parallel */
+	static final int PARALLEL_THRESHOLD = 512;
+
 	/** List of polynomial roots */
 	private Complex[] roots;
 	/** List of polynomial constants */
@@ -35,18 +43,68 @@ public class ComplexRootedPolynomial {
 	}
 
 	/**
-	 * converts this representation to ComplexPolynomial type
+	 * converts this representation to ComplexPolynomial type. Polynomials with
+	 * fewer than {@value ComplexPolynomial#FFT_THRESHOLD} roots are expanded by
+	 * multiplying linear factors one by one, from left to right, so their
+	 * coefficients are exactly the same as they always were. Larger ones are
+	 * multiplied in balanced product tree, so large products can use FFT
+	 * multiplication. Roots are ordered by angle and every subtree takes every
+	 * other root, so roots of each subtree are spread around and its coefficients
+	 * stay small; rounding therefore differs from sequential expansion. Subtrees
+	 * with at least {@value #PARALLEL_THRESHOLD} roots are expanded in parallel.
 	 * 
 	 * @return ComplexPolynomial
 	 */
 	public ComplexPolynomial toComplexPolynom() {
-		ComplexPolynomial poly = new ComplexPolynomial(constant);
+		if (roots.length < ComplexPolynomial.FFT_THRESHOLD) {
+			ComplexPolynomial poly = new ComplexPolynomial(constant);
+			for (int i = 0; i < roots.length; i++) {
+				poly = poly.multiply(new ComplexPolynomial(roots[i].negate(), new Complex(1, 0)));
+			}
+			return poly;
+		}
+		Complex[] sorted = roots.clone();
+		Arrays.sort(sorted, Comparator.comparingDouble(r -> Math.atan2(r.getImaginary(), r.getReal())));
 
-		for (int i = 0; i < roots.length; i++) {
-			poly = poly.multiply(new ComplexPolynomial(roots[i].negate(), new Complex(1, 0)));
+		ComplexPolynomial product = sorted.length >= PARALLEL_THRESHOLD
+				? ForkJoinPool.commonPool().invoke(new ProductTreeTask(sorted, 0, 1))
+				: productOf(sorted, 0, 1);
+		return new ComplexPolynomial(constant).multiply(product);
+	}
+
+	/** Multiplies linear factors (z - roots[i]) for i = start, start + step, ... */
+	private static ComplexPolynomial productOf(Complex[] roots, int start, int step) {
+		if (start + step >= roots.length) {
+			return new ComplexPolynomial(roots[start].negate(), new Complex(1, 0));
+		}
+		return productOf(roots, start, 2 * step).multiply(productOf(roots, start + step, 2 * step));
+	}
+
+	/** Expands both halves of product tree in parallel */
+	private static class ProductTreeTask extends RecursiveTask<ComplexPolynomial> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Complex[] roots;
+		private int start;
+		private int step;
+
+		private ProductTreeTask(Complex[] roots, int start, int step) {
+			this.roots = roots;
+			this.start = start;
+			this.step = step;
 		}
 
-		return poly;
+		@Override
+		protected ComplexPolynomial compute() {
+			if ((roots.length - start) / step < PARALLEL_THRESHOLD) {
+				return productOf(roots, start, step);
+			}
+			ProductTreeTask left = new ProductTreeTask(roots, start, 2 * step);
+			left.fork();
+			ComplexPolynomial right = new ProductTreeTask(roots, start + step, 2 * step).compute();
+			return left.join().multiply(right);
+		}
 	}
 
 	@Override
@@ -83,4 +141,69 @@ public class ComplexRootedPolynomial {
 		return minValue <= treshold ? minIndex : -1;
 	}
 
+	/**
+	 * finds index of closest root for complex number (re + im i), same as
+	 * {@link #indexOfClosestRootFor(Complex, double)} but without creating
+	 * complex number
+	 * 
+	 * @param re real part of complex number
+	 * @param im imaginary part of complex number
+	 * @param treshold 
+	 * @return index of closest root
+	 */
+	public int indexOfClosestRootFor(double re, double im, double treshold) {
+		double minValue = Double.POSITIVE_INFINITY;
+		int minIndex = -1;
+
+		for (int i = 0; i < roots.length; i++) {
+			double dRe = roots[i].getReal() - re;
+			double dIm = roots[i].getImaginary() - im;
+			double distance = Math.sqrt(dRe * dRe + dIm * dIm);
+			if (distance <= minValue) {
+				minValue = distance;
+				minIndex = i;
+			}
+		}
+		return minValue <= treshold ? minIndex : -1;
+	}
+
+	/**
+	 * returns copy of roots of this polynomial
+	 * 
+	 * @return roots in order in which they were given
+	 */
+	public Complex[] getRoots() {
+		return roots.clone();
+	}
+
+	/**
+	 * computes for each root radius of disk inside which Newton's iteration is
+	 * certain to converge to that root. For simple root r with distance d to
+	 * closest other root and polynomial of order n, Newton's step maps error
+	 * e = z - r to e * eS / (1 + eS), where S is sum of 1 / (z - r') over other
+	 * roots, so |eS| &lt;= t = |e| (n - 1) / (d - |e|) and new error is at most
+	 * |e| t / (1 - t). Error shrinks in every step while t &lt; 1/2, that is while
+	 * |e| &lt; d / (2n - 1). Repeated roots get radius 0 because iteration
+	 * converges to them only linearly and no disk is certified.
+	 * Radii are computed on each call in O(n^2) time.
+	 * 
+	 * @return radius for each root, in order of roots
+	 */
+	public double[] convergenceRadii() {
+		int n = roots.length;
+		double[] radii = new double[n];
+		for (int i = 0; i < n; i++) {
+			double closest = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < n; j++) {
+				if (j == i)
+					continue;
+				double dRe = roots[i].getReal() - roots[j].getReal();
+				double dIm = roots[i].getImaginary() - roots[j].getImaginary();
+				closest = Math.min(closest, Math.sqrt(dRe * dRe + dIm * dIm));
+			}
+			radii[i] = closest / (2 * n - 1);
+		}
+		return radii;
+	}
+
 }
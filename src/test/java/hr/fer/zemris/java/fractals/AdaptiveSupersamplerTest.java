@@ -0,0 +1,79 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class AdaptiveSupersamplerTest {
+
+	private static final ComplexRootedPolynomial QUARTIC = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE,
+			Complex.ONE_NEG, Complex.IM, Complex.IM_NEG);
+
+	@Test
+	void findBoundaryTest() {
+		short[] data = { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 1, 1, 2, 2 };
+
+		assertArrayEquals(new int[] { 5, 6, 7, 9, 10, 11, 13, 14 },
+				AdaptiveSupersampler.findBoundary(data, 4, 4));
+	}
+
+	@Test
+	void coverageOfBoundaryPixelsSumsToOneTest() {
+		CoverageFrame frame = supersampler(3, null).render(new Viewport(-2, 2, -2, 2), 60, 40,
+				new AtomicBoolean(false));
+
+		assertTrue(frame.boundaryCount() > 0);
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 60; x++) {
+				float sum = 0;
+				for (int index = 0; index < frame.getOrder(); index++) {
+					sum += frame.coverage(x, y, index);
+				}
+				assertEquals(1, sum, 1e-5);
+			}
+		}
+	}
+
+	@Test
+	void interiorPixelsAreNotSampledTest() {
+		CoverageFrame small = supersampler(2, null).render(new Viewport(-2, 2, -2, 2), 100, 100,
+				new AtomicBoolean(false));
+		CoverageFrame large = supersampler(2, null).render(new Viewport(-2, 2, -2, 2), 400, 400,
+				new AtomicBoolean(false));
+
+		assertTrue(large.boundaryCount() < 400 * 400 / 4);
+		assertTrue(large.boundaryCount() < 16 * small.boundaryCount());
+	}
+
+	@Test
+	void parallelSamplingMatchesSerialTest() {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Viewport viewport = new Viewport(-1, 1, -1, 1);
+			CoverageFrame serial = supersampler(4, null).render(viewport, 80, 60, new AtomicBoolean(false));
+			CoverageFrame parallel = supersampler(4, executor).render(viewport, 80, 60, new AtomicBoolean(false));
+
+			assertArrayEquals(serial.toRgb(PngFrameWriter.createPalette(serial.getOrder())),
+					parallel.toRgb(PngFrameWriter.createPalette(parallel.getOrder())));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void cancelledRenderTest() {
+		assertNull(supersampler(2, null).render(new Viewport(-2, 2, -2, 2), 50, 50, new AtomicBoolean(true)));
+	}
+
+	private static AdaptiveSupersampler supersampler(int samplesPerAxis, ExecutorService executor) {
+		return new AdaptiveSupersampler(QUARTIC, new HornerNewtonKernel(QUARTIC.toComplexPolynom()), samplesPerAxis,
+				executor);
+	}
+}
@@ -0,0 +1,250 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import hr.fer.zemris.java.fractals.GoldenFrames.Case;
+import hr.fer.zemris.java.fractals.GoldenFrames.Frame;
+import hr.fer.zemris.java.fractals.NewtonParallel.FractalProducerParallelImpl;
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Checks that every render engine reproduces golden frames and that no engine became much slower.
+ * Golden frames are rendered by serial reference producer of {@link Newton}, which iterates exactly as the
+ * original serial implementation did, so they are the original output. Reference engines must match them exactly.
+ * Engines that iterate with {@link HornerNewtonKernel} or generated kernel round differently and may differ
+ * only in pixels listed in {@link #KERNEL_DRIFT}.
+ * Throughput floors are deliberately far below speed of ordinary machine, they catch only big regressions.
+ * They can be scaled with system property <code>throughput.floorScale</code>, 0 turns them off.
+ */
+class GoldenFrameTest {
+
+	private static final RequestScheduler SCHEDULER = new RequestScheduler(3, true);
+	private static final int THROUGHPUT_WIDTH = 400;
+	private static final int THROUGHPUT_HEIGHT = 300;
+	private static final int THROUGHPUT_REPETITIONS = 3;
+	/**Number of pixels in which Newton kernels differ from golden frame, by case. Horner scheme evaluates f and f'
+	 * with different rounding than {@link hr.fer.zemris.math.ComplexPolynomial#apply}, so few pixels on basin
+	 * boundaries end in other basin. Drift is pinned exactly, so any change of numerics is noticed. */
+	private static final Map<String, Integer> KERNEL_DRIFT = new HashMap<>();
+
+	static {
+		KERNEL_DRIFT.put("high-degree", 1);
+	}
+
+	/**Render engine under test*/
+	private static class Engine {
+		private String name;
+		/**minimal throughput in megapixels per second */
+		private double floor;
+		/**whether engine iterates as reference, otherwise it may differ by {@link #KERNEL_DRIFT} */
+		private boolean reference;
+		private Function<Case, Frame> renderer;
+
+		private Engine(String name, double floor, boolean reference, Function<Case, Frame> renderer) {
+			this.name = name;
+			this.floor = floor;
+			this.reference = reference;
+			this.renderer = renderer;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static List<Engine> engines() {
+		List<Engine> engines = new ArrayList<>();
+		engines.add(new Engine("serial", 0.3, true, GoldenFrames::renderReference));
+		engines.add(new Engine("calculate", 0.3, false, GoldenFrameTest::renderDirectly));
+		engines.add(new Engine("parallel", 0.3, false, c -> renderParallel(c, false)));
+		engines.add(new Engine("parallel-generated", 0.3, false, c -> renderParallel(c, true)));
+		engines.add(new Engine("animation", 0.3, false, GoldenFrameTest::renderAnimation));
+		for (IRenderEngine engine : RenderEngines.load()) {
+			engines.add(new Engine("engine " + engine.getName(), 0.3, engine instanceof SerialRenderEngine,
+					c -> renderEngine(c, engine)));
+		}
+		return engines;
+	}
+
+	static Stream<Arguments> enginesAndCases() {
+		List<Arguments> arguments = new ArrayList<>();
+		for (Engine engine : engines()) {
+			for (Case c : GoldenFrames.cases()) {
+				arguments.add(Arguments.of(engine, c));
+			}
+		}
+		return arguments.stream();
+	}
+
+	static Stream<Engine> allEngines() {
+		return engines().stream();
+	}
+
+	@ParameterizedTest(name = "{0} {1}")
+	@MethodSource("enginesAndCases")
+	void engineMatchesGoldenFrameTest(Engine engine, Case c) {
+		Frame golden = GoldenFrames.load(c);
+		Frame frame = engine.renderer.apply(c);
+
+		assertEquals(golden.getWidth(), c.getWidth());
+		assertEquals(golden.getHeight(), c.getHeight());
+		assertEquals(golden.getOrder(), frame.getOrder());
+		assertFrameEquals(golden.getData(), frame.getData(), c.getWidth(), engine.reference ? 0 : kernelDrift(c));
+	}
+
+	@Test
+	void tilesAssembleIntoGoldenFrameTest() {
+		for (Case c : GoldenFrames.cases()) {
+			short[] assembled = new short[c.getWidth() * c.getHeight()];
+			List<Integer> coveredRows = Collections.synchronizedList(new ArrayList<>());
+			parallelProducer(c, false).produce(c.getViewport().getReMin(), c.getViewport().getReMax(),
+					c.getViewport().getImMin(), c.getViewport().getImMax(), c.getWidth(), c.getHeight(), 0,
+					new IFractalTileObserver() {
+						@Override
+						public void acceptTile(short[] data, int width, int xMin, int yMin, int xMax, int yMax,
+								short order, long requestNo) {
+							for (int y = yMin; y <= yMax; y++) {
+								System.arraycopy(data, y * width + xMin, assembled, y * width + xMin, xMax - xMin + 1);
+								coveredRows.add(y);
+							}
+						}
+
+						@Override
+						public void frameFinished(short[] data, short order, long requestNo) {
+						}
+					}, new AtomicBoolean(false));
+
+			assertEquals(c.getHeight(), coveredRows.size(), c.getName());
+			assertFrameEquals(GoldenFrames.load(c).getData(), assembled, c.getWidth(), kernelDrift(c));
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("allEngines")
+	void throughputFloorTest(Engine engine) {
+		double scale = Double.parseDouble(System.getProperty("throughput.floorScale", "1"));
+		if (scale <= 0)
+			return;
+
+		Case c = throughputCase();
+		engine.renderer.apply(c);
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < THROUGHPUT_REPETITIONS; i++) {
+			long start = System.nanoTime();
+			engine.renderer.apply(c);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		double megapixelsPerSecond = (double) THROUGHPUT_WIDTH * THROUGHPUT_HEIGHT / (best / 1e3);
+		System.out.println(String.format("%s: %.2f Mpx/s", engine.name, megapixelsPerSecond));
+		assertTrue(megapixelsPerSecond >= engine.floor * scale, String.format(
+				"%s renders %.2f Mpx/s, floor is %.2f Mpx/s", engine.name, megapixelsPerSecond, engine.floor * scale));
+	}
+
+	private static Case throughputCase() {
+		for (Case c : GoldenFrames.cases()) {
+			if (c.getName().equals("quartic")) {
+				return GoldenFrames.resized(c, THROUGHPUT_WIDTH, THROUGHPUT_HEIGHT);
+			}
+		}
+		throw new IllegalStateException("Missing quartic case.");
+	}
+
+	private static int kernelDrift(Case c) {
+		return KERNEL_DRIFT.getOrDefault(c.getName(), 0);
+	}
+
+	/**Checks that frame differs from expected one in exactly <code>drift</code> pixels*/
+	private static void assertFrameEquals(short[] expected, short[] actual, int width, int drift) {
+		assertEquals(expected.length, actual.length);
+		int different = 0;
+		String first = null;
+		for (int i = 0; i < expected.length; i++) {
+			if (expected[i] != actual[i]) {
+				different++;
+				if (first == null) {
+					first = String.format("pixel (%d, %d) is %d, expected %d", i % width, i / width, actual[i],
+							expected[i]);
+				}
+			}
+		}
+		assertEquals(drift, different, "Number of pixels that differ from golden frame, first " + first);
+	}
+
+	private static Frame renderDirectly(Case c) {
+		ComplexRootedPolynomial rootedPoly = c.getRootedPoly();
+		short[] data = new short[c.getWidth() * c.getHeight()];
+		Viewport v = c.getViewport();
+		int half = c.getHeight() / 3;
+		NewtonParallel.calculate(v.getReMin(), v.getReMax(), v.getImMin(), v.getImMax(), c.getWidth(), c.getHeight(),
+				16 * 16 * 16, 0, half, data, new AtomicBoolean(false), rootedPoly);
+		NewtonParallel.calculate(v.getReMin(), v.getReMax(), v.getImMin(), v.getImMax(), c.getWidth(), c.getHeight(),
+				16 * 16 * 16, half + 1, c.getHeight() - 1, data, new AtomicBoolean(false), rootedPoly);
+		return new Frame(c.getWidth(), c.getHeight(), order(rootedPoly), data);
+	}
+
+	private static FractalProducerParallelImpl parallelProducer(Case c, boolean specializeKernel) {
+		return new FractalProducerParallelImpl(c.getRootedPoly(), 7, specializeKernel, SCHEDULER);
+	}
+
+	private static Frame renderParallel(Case c, boolean specializeKernel) {
+		Frame[] result = new Frame[1];
+		Viewport v = c.getViewport();
+		parallelProducer(c, specializeKernel).produce(v.getReMin(), v.getReMax(), v.getImMin(), v.getImMax(),
+				c.getWidth(), c.getHeight(), 0,
+				(data, order, requestNo) -> result[0] = new Frame(c.getWidth(), c.getHeight(), order, data),
+				new AtomicBoolean(false));
+		assertNotNull(result[0], "Frame was not delivered.");
+		return result[0];
+	}
+
+	private static Frame renderEngine(Case c, IRenderEngine engine) {
+		Frame[] result = new Frame[1];
+		Viewport v = c.getViewport();
+		IFractalProducer producer = engine.createProducer(c.getRootedPoly(), 3, 7);
+		try {
+			producer.produce(v.getReMin(), v.getReMax(), v.getImMin(), v.getImMax(), c.getWidth(), c.getHeight(), 0,
+					(data, order, requestNo) -> result[0] = new Frame(c.getWidth(), c.getHeight(), order, data),
+					new AtomicBoolean(false));
+		} finally {
+			RenderEngines.close(producer);
+		}
+		assertNotNull(result[0], "Frame was not delivered.");
+		return result[0];
+	}
+
+	private static Frame renderAnimation(Case c) {
+		Frame[] result = new Frame[1];
+		new PipelinedAnimationRenderer(c.getRootedPoly(), 2, 5, 2).render(Collections.singletonList(c.getViewport()),
+				c.getWidth(), c.getHeight(), (frameNo, data, width, height, order) -> result[0] = new Frame(width,
+						height, order, data.clone()));
+		return result[0];
+	}
+
+	private static short order(ComplexRootedPolynomial rootedPoly) {
+		return (short) (rootedPoly.toComplexPolynom().order() + 1);
+	}
+
+	@Test
+	void goldenCasesHaveDistinctNamesTest() {
+		List<String> names = new ArrayList<>();
+		for (Case c : GoldenFrames.cases()) {
+			assertFalse(names.contains(c.getName()), c.getName());
+			names.add(c.getName());
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package hr.fer.zemris.java.fractals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Golden root-index frames that every render engine must reproduce exactly.
+ * Frames are stored in <code>src/test/resources/golden</code> as run-length encoded text:
+ * first line is <code>width height order</code>, followed by <code>value count</code> pairs.
+ * Running this class as Java program regenerates all frames with serial engine of {@link Newton},
+ * which is reference implementation. It iterates and expands polynomials exactly as the original serial
+ * implementation, so frames are output of the original program, not of faster engines.
+ * @author gorsicleo
+ *
+ */
+public class GoldenFrames {
+
+	private static final String RESOURCE_DIRECTORY = "/golden/";
+	private static final Path SOURCE_DIRECTORY = Paths.get("src", "test", "resources", "golden");
+	private static final int PAIRS_PER_LINE = 16;
+
+	/**Polynomial, viewport and frame size of one golden frame*/
+	public static class Case {
+		private String name;
+		private ComplexRootedPolynomial rootedPoly;
+		private Viewport viewport;
+		private int width;
+		private int height;
+
+		private Case(String name, Complex[] roots, Viewport viewport, int width, int height) {
+			this(name, new ComplexRootedPolynomial(Complex.ONE, roots), viewport, width, height);
+		}
+
+		private Case(String name, ComplexRootedPolynomial rootedPoly, Viewport viewport, int width, int height) {
+			this.name = name;
+			this.rootedPoly = rootedPoly;
+			this.viewport = viewport;
+			this.width = width;
+			this.height = height;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public ComplexRootedPolynomial getRootedPoly() {
+			return rootedPoly;
+		}
+
+		public Viewport getViewport() {
+			return viewport;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**Stored frame: root index + 1 of each pixel, 0 if iteration did not converge to any root*/
+	public static class Frame {
+		private int width;
+		private int height;
+		private short order;
+		private short[] data;
+
+		public Frame(int width, int height, short order, short[] data) {
+			this.width = width;
+			this.height = height;
+			this.order = order;
+			this.data = data;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		public short getOrder() {
+			return order;
+		}
+
+		public short[] getData() {
+			return data;
+		}
+	}
+
+	/**Returns all golden cases. Frames are not square, so swapped width and height are noticed.*/
+	public static List<Case> cases() {
+		List<Case> cases = new ArrayList<>();
+		cases.add(new Case("quartic", new Complex[] { Complex.ONE, Complex.ONE_NEG, Complex.IM, Complex.IM_NEG },
+				new Viewport(-2, 2, -2, 2), 96, 72));
+		cases.add(new Case("cubic-zoom", cubeRootsOfUnity(), new Viewport(-0.6, -0.2, -0.2, 0.1), 80, 64));
+		cases.add(new Case("double-root", new Complex[] { Complex.ONE, Complex.ONE, Complex.ONE_NEG },
+				new Viewport(-2, 2, -1.5, 1.5), 72, 54));
+		cases.add(new Case("asymmetric-septic",
+				new Complex[] { new Complex(1.2, 0.3), new Complex(-0.7, 1.1), new Complex(-1.3, -0.2),
+						new Complex(0.1, -1.4), new Complex(0.5, 0.5), new Complex(-0.4, -0.6), new Complex(2, -1) },
+				new Viewport(-2.5, 2.5, -2, 2), 100, 80));
+		cases.add(new Case("high-degree", circle(24), new Viewport(-1.5, 1.5, -1.5, 1.5), 64, 48));
+		return cases;
+	}
+
+	private static Complex[] cubeRootsOfUnity() {
+		return new Complex[] { Complex.ONE, new Complex(-0.5, Math.sqrt(3) / 2), new Complex(-0.5, -Math.sqrt(3) / 2) };
+	}
+
+	private static Complex[] circle(int order) {
+		Complex[] roots = new Complex[order];
+		for (int i = 0; i < order; i++) {
+			double angle = 2 * Math.PI * i / order + 0.1;
+			double radius = 1 + 0.1 * Math.sin(3 * i);
+			roots[i] = new Complex(radius * Math.cos(angle), radius * Math.sin(angle));
+		}
+		return roots;
+	}
+
+	/**Returns case with same polynomial and viewport and different frame size*/
+	public static Case resized(Case c, int width, int height) {
+		return new Case(c.name + "-" + width + "x" + height, c.rootedPoly, c.viewport, width, height);
+	}
+
+	/**Renders case with reference serial engine*/
+	public static Frame renderReference(Case c) {
+		Frame[] result = new Frame[1];
+		new Newton.FractalProducerSerialImpl(c.rootedPoly).produce(c.viewport.getReMin(), c.viewport.getReMax(),
+				c.viewport.getImMin(), c.viewport.getImMax(), c.width, c.height, 0,
+				(data, order, requestNo) -> result[0] = new Frame(c.width, c.height, order, data),
+				new AtomicBoolean(false));
+		return result[0];
+	}
+
+	/**Reads golden frame of given case from test resources*/
+	public static Frame load(Case c) {
+		try (InputStream is = GoldenFrames.class.getResourceAsStream(RESOURCE_DIRECTORY + c.name + ".rle")) {
+			if (is == null) {
+				throw new IllegalStateException("Missing golden frame " + c.name + ", run GoldenFrames to create it.");
+			}
+			BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.US_ASCII));
+			String[] header = reader.readLine().trim().split("\\s+");
+			int width = Integer.parseInt(header[0]);
+			int height = Integer.parseInt(header[1]);
+			short order = Short.parseShort(header[2]);
+
+			short[] data = new short[width * height];
+			int offset = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] parts = line.trim().split("\\s+");
+				for (int i = 0; i + 1 < parts.length; i += 2) {
+					short value = Short.parseShort(parts[i]);
+					int count = Integer.parseInt(parts[i + 1]);
+					Arrays.fill(data, offset, offset + count, value);
+					offset += count;
+				}
+			}
+			if (offset != data.length) {
+				throw new IllegalStateException("Golden frame " + c.name + " has " + offset + " pixels instead of "
+						+ data.length + ".");
+			}
+			return new Frame(width, height, order, data);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**Writes frame as run-length encoded text*/
+	public static void write(Frame frame, Writer writer) throws IOException {
+		writer.write(frame.width + " " + frame.height + " " + frame.order + "\n");
+		short[] data = frame.data;
+		int pairs = 0;
+		for (int start = 0; start < data.length;) {
+			int end = start + 1;
+			while (end < data.length && data[end] == data[start]) {
+				end++;
+			}
+			writer.write(data[start] + " " + (end - start));
+			writer.write(++pairs % PAIRS_PER_LINE == 0 || end == data.length ? "\n" : " ");
+			start = end;
+		}
+	}
+
+	/**Regenerates golden frames with reference engine. Run from project directory.*/
+	public static void main(String[] args) throws IOException {
+		Files.createDirectories(SOURCE_DIRECTORY);
+		for (Case c : cases()) {
+			Path file = SOURCE_DIRECTORY.resolve(c.name + ".rle");
+			try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+				write(renderReference(c), writer);
+			}
+			System.out.println("Zapisan " + file + " (" + Files.size(file) + " B)");
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class HornerSecondOrderKernelTest {
+
+	private static final int M = 16 * 16 * 16;
+
+	@Test
+	void stepMatchesFormulaTest() {
+		ComplexPolynomial f = new ComplexRootedPolynomial(new Complex(2, -1), new Complex(1, 0.5), Complex.IM_NEG,
+				new Complex(-1.5, 0.2), new Complex(0.3, 2)).toComplexPolynom();
+		ComplexPolynomial df = f.derive();
+		ComplexPolynomial ddf = df.derive();
+		Complex start = new Complex(0.7, -0.4);
+		Complex fz = f.apply(start);
+		Complex dfz = df.apply(start);
+		Complex ddfz = ddf.apply(start);
+
+		for (double c : new double[] { HornerSecondOrderKernel.HALLEY, HornerSecondOrderKernel.SCHRODER }) {
+			Complex weight = new Complex(c, 0);
+			Complex step = weight.multiply(fz).multiply(dfz)
+					.divide(weight.multiply(dfz).multiply(dfz).sub(fz.multiply(ddfz)));
+			Complex expected = start.sub(step);
+
+			double[] z = new double[2];
+			assertEquals(1, new HornerSecondOrderKernel(f, c).iterate(start.getReal(), start.getImaginary(), 1, z));
+			assertEquals(expected.getReal(), z[0], 1e-12);
+			assertEquals(expected.getImaginary(), z[1], 1e-12);
+		}
+	}
+
+	@Test
+	void convergesToSimpleRootsTest() {
+		Complex[] roots = { Complex.ONE, Complex.ONE_NEG, Complex.IM, Complex.IM_NEG };
+		ComplexRootedPolynomial rootedPoly = new ComplexRootedPolynomial(Complex.ONE, roots);
+		for (IterationScheme scheme : IterationScheme.values()) {
+			INewtonKernel kernel = scheme.createKernel(rootedPoly.toComplexPolynom());
+			double[] z = new double[2];
+			for (int i = 0; i < roots.length; i++) {
+				kernel.iterate(roots[i].getReal() * 0.8 + 0.1, roots[i].getImaginary() * 0.8 - 0.1, M, z);
+				assertEquals(i, rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD),
+						scheme.toString());
+			}
+		}
+	}
+
+	@Test
+	void schroderConvergesFastToMultipleRootTest() {
+		ComplexRootedPolynomial rootedPoly = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE,
+				Complex.ONE, Complex.ONE_NEG);
+		ComplexPolynomial f = rootedPoly.toComplexPolynom();
+		double[] z = new double[2];
+
+		int newtonIterations = IterationScheme.NEWTON.createKernel(f).iterate(1.4, 0.3, M, z);
+		int schroderIterations = IterationScheme.SCHRODER.createKernel(f).iterate(1.4, 0.3, M, z);
+
+		assertTrue(Math.hypot(z[0] - 1, z[1]) < 1e-6);
+		assertTrue(schroderIterations < newtonIterations,
+				schroderIterations + " Schroder iterations, " + newtonIterations + " Newton iterations");
+	}
+
+	@Test
+	void parseSchemeTest() {
+		assertEquals(IterationScheme.HALLEY, IterationScheme.parse("Halley"));
+		assertEquals(IterationScheme.SCHRODER, IterationScheme.parse(" schroder"));
+		assertThrows(IllegalArgumentException.class, () -> IterationScheme.parse("secant"));
+	}
+}
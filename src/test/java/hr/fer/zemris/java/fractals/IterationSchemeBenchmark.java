@@ -0,0 +1,59 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Compares iteration schemes on polynomials with simple and multiple roots: iterations per pixel,
+ * share of pixels not assigned to any root and wall time. Run as plain Java program, it is not part of test suite.
+ * @author gorsicleo
+ *
+ */
+public class IterationSchemeBenchmark {
+
+	private static final int SIZE = 256;
+	private static final int ITERATIONS = 16 * 16 * 16;
+	private static final int REPETITIONS = 3;
+
+	public static void main(String[] args) {
+		benchmark("z^4 - 1", new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE_NEG, Complex.IM,
+				Complex.IM_NEG));
+		benchmark("12 simple roots", KernelBenchmark.rootsOnCircle(12));
+		benchmark("double root", new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE, Complex.ONE_NEG,
+				Complex.IM));
+		benchmark("triple root", new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE, Complex.ONE,
+				Complex.ONE_NEG, Complex.IM));
+	}
+
+	private static void benchmark(String name, ComplexRootedPolynomial rootedPoly) {
+		System.out.println(name);
+		System.out.println("  scheme     iterations/pixel  unassigned[%]  time[ms]");
+		ComplexPolynomial f = rootedPoly.toComplexPolynom();
+		for (IterationScheme scheme : IterationScheme.values()) {
+			INewtonKernel kernel = scheme.createKernel(f);
+			short[] data = new short[SIZE * SIZE];
+			long[] rowCost = new long[SIZE];
+			double best = Double.MAX_VALUE;
+			for (int i = 0; i < REPETITIONS; i++) {
+				long start = System.nanoTime();
+				NewtonParallel.calculate(-2, 2, -2, 2, SIZE, SIZE, ITERATIONS, 0, SIZE - 1, data,
+						new AtomicBoolean(), rootedPoly, kernel, rowCost);
+				best = Math.min(best, (System.nanoTime() - start) / 1e6);
+			}
+
+			long iterations = 0;
+			for (long cost : rowCost) {
+				iterations += cost;
+			}
+			int unassigned = 0;
+			for (short index : data) {
+				if (index == 0)
+					unassigned++;
+			}
+			System.out.println(String.format("  %-9s  %16.2f  %13.2f  %8.2f", scheme, (double) iterations / data.length,
+					100.0 * unassigned / data.length, best));
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Compares generic {@link HornerNewtonKernel} with kernel generated by {@link NewtonKernelGenerator}
+ * for polynomials of order 2 to 32. Run as plain Java program, it is not part of test suite.
+ * @author gorsicleo
+ *
+ */
+public class KernelBenchmark {
+
+	private static final int SIZE = 256;
+	private static final int ITERATIONS = 16 * 16 * 16;
+	private static final int REPETITIONS = 5;
+
+	public static void main(String[] args) {
+		System.out.println("order  generic[ms]  generated[ms]  speedup  identical");
+		for (int order = 2; order <= 32; order += order < 8 ? 1 : 4) {
+			ComplexRootedPolynomial rootedPoly = rootsOnCircle(order);
+			ComplexPolynomial f = rootedPoly.toComplexPolynom();
+
+			INewtonKernel generic = new HornerNewtonKernel(f);
+			INewtonKernel generated = NewtonKernelGenerator.generate(f);
+			short[] genericData = new short[SIZE * SIZE];
+			short[] generatedData = new short[SIZE * SIZE];
+
+			double genericTime = bestTime(rootedPoly, generic, genericData);
+			double generatedTime = bestTime(rootedPoly, generated, generatedData);
+			System.out.println(String.format("%5d  %11.2f  %13.2f  %7.2f  %s", order, genericTime, generatedTime,
+					genericTime / generatedTime, Arrays.equals(genericData, generatedData)));
+		}
+	}
+
+	/**Renders fractal several times and returns shortest time in milliseconds*/
+	private static double bestTime(ComplexRootedPolynomial rootedPoly, INewtonKernel kernel, short[] data) {
+		double best = Double.MAX_VALUE;
+		for (int i = 0; i < REPETITIONS; i++) {
+			long start = System.nanoTime();
+			NewtonParallel.calculate(-2, 2, -2, 2, SIZE, SIZE, ITERATIONS, 0, SIZE - 1, data, new AtomicBoolean(),
+					rootedPoly, kernel, null);
+			best = Math.min(best, (System.nanoTime() - start) / 1e6);
+		}
+		return best;
+	}
+
+	/**Creates polynomial with roots spread on slightly perturbed unit circle*/
+	static ComplexRootedPolynomial rootsOnCircle(int order) {
+		Complex[] roots = new Complex[order];
+		for (int i = 0; i < order; i++) {
+			double angle = 2 * Math.PI * i / order + 0.1;
+			double radius = 1 + 0.1 * Math.sin(3 * i);
+			roots[i] = new Complex(radius * Math.cos(angle), radius * Math.sin(angle));
+		}
+		return new ComplexRootedPolynomial(Complex.ONE, roots);
+	}
+}
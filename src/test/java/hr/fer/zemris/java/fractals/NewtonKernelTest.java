@@ -0,0 +1,91 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class NewtonKernelTest {
+
+	private static final int M = 16 * 16 * 16;
+	private static final int GRID = 41;
+
+	@Test
+	void generatedKernelMatchesHornerKernelTest() {
+		assumeTrue(NewtonKernelGenerator.isAvailable(), "kernels can be generated only on JDK");
+		for (ComplexRootedPolynomial rootedPoly : polynomials()) {
+			ComplexPolynomial f = rootedPoly.toComplexPolynom();
+			RootDisks disks = new RootDisks(rootedPoly);
+			assertSameIteration(new HornerNewtonKernel(f), NewtonKernelGenerator.generate(f), f);
+			assertSameIteration(new HornerNewtonKernel(f, disks), NewtonKernelGenerator.generate(f, disks), f);
+		}
+	}
+
+	@Test
+	void hornerKernelMatchesBaselineIterationTest() {
+		for (ComplexRootedPolynomial rootedPoly : polynomials()) {
+			ComplexPolynomial f = rootedPoly.toComplexPolynom();
+			INewtonKernel kernel = new HornerNewtonKernel(f);
+			double[] z = new double[2];
+			for (int i = 0; i < GRID; i++) {
+				for (int j = 0; j < GRID; j++) {
+					Complex start = gridPoint(i, j);
+					Complex expected = baseline(f, start);
+					kernel.iterate(start.getReal(), start.getImaginary(), M, z);
+					assertEquals(rootedPoly.indexOfClosestRootFor(expected, INewtonKernel.ROOT_THRESHOLD),
+							rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD),
+							f + " from " + start);
+				}
+			}
+		}
+	}
+
+	/**Iteration of first serial implementation, on {@link Complex} with separately evaluated f and f'*/
+	private static Complex baseline(ComplexPolynomial f, Complex start) {
+		ComplexPolynomial derivative = f.derive();
+		Complex zn = start;
+		Complex znOld;
+		int iter = 0;
+		do {
+			znOld = zn;
+			zn = zn.sub(f.apply(zn).divide(derivative.apply(zn)));
+			iter++;
+		} while (iter < M && zn.sub(znOld).module() > INewtonKernel.CONVERGENCE_THRESHOLD);
+		return zn;
+	}
+
+	private static void assertSameIteration(INewtonKernel expected, INewtonKernel actual, ComplexPolynomial f) {
+		double[] z = new double[2];
+		double[] w = new double[2];
+		for (int i = 0; i < GRID; i++) {
+			for (int j = 0; j < GRID; j++) {
+				Complex start = gridPoint(i, j);
+				int expectedIterations = expected.iterate(start.getReal(), start.getImaginary(), M, z);
+				int iterations = actual.iterate(start.getReal(), start.getImaginary(), M, w);
+				assertEquals(expectedIterations, iterations, f + " from " + start);
+				assertEquals(z[0], w[0], 0, f + " from " + start);
+				assertEquals(z[1], w[1], 0, f + " from " + start);
+			}
+		}
+	}
+
+	/**Point of grid over [-2, 2] x [-2, 2], shifted so that no point lies on axis of symmetry*/
+	private static Complex gridPoint(int i, int j) {
+		return new Complex(-2 + 4.0 * i / (GRID - 1) + 1e-3, -2 + 4.0 * j / (GRID - 1) + 2e-3);
+	}
+
+	private static ComplexRootedPolynomial[] polynomials() {
+		return new ComplexRootedPolynomial[] {
+				new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE_NEG),
+				new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, new Complex(-0.5, Math.sqrt(3) / 2),
+						new Complex(-0.5, -Math.sqrt(3) / 2)),
+				new ComplexRootedPolynomial(new Complex(2, -1), new Complex(1, 0.5), Complex.IM_NEG,
+						new Complex(-1.5, 0.2), new Complex(0.3, 2)),
+				KernelBenchmark.rootsOnCircle(7),
+				KernelBenchmark.rootsOnCircle(12) };
+	}
+}
@@ -0,0 +1,156 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.java.fractals.NewtonParallel.FractalProducerParallelImpl;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class NewtonParallelTest {
+
+	private static final ComplexRootedPolynomial ROOTS = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE,
+			Complex.ONE_NEG, Complex.IM, Complex.IM_NEG);
+	private static final int WIDTH = 50;
+	private static final int HEIGHT = 37;
+
+	@Test
+	void streamedRowsAreDeliveredExactlyOnceTest() {
+		short[] expected = new short[WIDTH * HEIGHT];
+		NewtonParallel.calculate(-2, 2, -2, 2, WIDTH, HEIGHT, 16 * 16 * 16, 0, HEIGHT - 1, expected,
+				new AtomicBoolean(false), ROOTS);
+		FractalProducerParallelImpl producer = new FractalProducerParallelImpl(ROOTS, new int[] { 3, 7 }, false);
+
+		// second frame is split by cost of first one
+		for (int frame = 0; frame < 2; frame++) {
+			AtomicIntegerArray deliveries = new AtomicIntegerArray(HEIGHT);
+			short[] streamed = new short[WIDTH * HEIGHT];
+			AtomicInteger finished = new AtomicInteger();
+			producer.produce(-2, 2, -2, 2, WIDTH, HEIGHT, frame, new IFractalTileObserver() {
+				@Override
+				public void acceptTile(short[] data, int width, int xMin, int yMin, int xMax, int yMax, short order,
+						long requestNo) {
+					assertEquals(WIDTH, width);
+					assertEquals(0, xMin);
+					assertEquals(WIDTH - 1, xMax);
+					for (int y = yMin; y <= yMax; y++) {
+						deliveries.incrementAndGet(y);
+						System.arraycopy(data, y * width, streamed, y * width, width);
+					}
+				}
+
+				@Override
+				public void frameFinished(short[] data, short order, long requestNo) {
+					finished.incrementAndGet();
+				}
+			}, new AtomicBoolean(false));
+
+			for (int y = 0; y < HEIGHT; y++) {
+				assertEquals(1, deliveries.get(y), "row " + y);
+			}
+			assertEquals(1, finished.get());
+			assertArrayEquals(expected, streamed);
+		}
+		producer.close();
+	}
+
+	@Test
+	void deliveredBuffersBelongToObserverTest() {
+		FractalProducerParallelImpl producer = new FractalProducerParallelImpl(ROOTS, new int[] { 2, 4 }, false);
+		short[][] frames = new short[2][];
+		producer.produce(-2, 2, -2, 2, WIDTH, HEIGHT, 1, (data, order, requestNo) -> frames[0] = data,
+				new AtomicBoolean(false));
+		short[] kept = frames[0].clone();
+		producer.produce(-1, 1, -1, 1, WIDTH, HEIGHT, 2, (data, order, requestNo) -> frames[1] = data,
+				new AtomicBoolean(false));
+
+		assertNull(producer.getBufferPool());
+		assertNotSame(frames[0], frames[1]);
+		assertArrayEquals(kept, frames[0]);
+		producer.close();
+	}
+
+	@Test
+	void noTilesAreDeliveredAfterCancelTest() {
+		FractalProducerParallelImpl producer = new FractalProducerParallelImpl(ROOTS, new int[] { 1, 10 }, false);
+		AtomicBoolean cancel = new AtomicBoolean(false);
+		AtomicInteger tilesAfterCancel = new AtomicInteger();
+		AtomicInteger finished = new AtomicInteger();
+
+		producer.produce(-2, 2, -2, 2, WIDTH, HEIGHT, 1, new IFractalTileObserver() {
+			@Override
+			public void acceptTile(short[] data, int width, int xMin, int yMin, int xMax, int yMax, short order,
+					long requestNo) {
+				if (cancel.getAndSet(true)) {
+					tilesAfterCancel.incrementAndGet();
+				}
+			}
+
+			@Override
+			public void frameFinished(short[] data, short order, long requestNo) {
+				finished.incrementAndGet();
+			}
+		}, cancel);
+
+		assertTrue(cancel.get());
+		assertEquals(0, tilesAfterCancel.get());
+		assertEquals(0, finished.get(), "cancelled frame is not finished");
+		producer.close();
+	}
+
+	@Test
+	void viewportWithoutAreaIsCalculatedTest() {
+		short[] expected = new short[WIDTH * HEIGHT];
+		NewtonParallel.calculate(1, 1, -2, 2, WIDTH, HEIGHT, 16 * 16 * 16, 0, HEIGHT - 1, expected,
+				new AtomicBoolean(false), ROOTS);
+		FractalProducerParallelImpl producer = new FractalProducerParallelImpl(ROOTS, new int[] { 3, 7 }, false);
+
+		short[][] result = new short[1][];
+		producer.produce(1, 1, -2, 2, WIDTH, HEIGHT, 0, (data, order, requestNo) -> result[0] = data.clone(),
+				new AtomicBoolean(false));
+		assertArrayEquals(expected, result[0]);
+	}
+
+	@Test
+	void argumentTest() {
+		String[] args = { "--size=640x480", "--frames=12" };
+		assertEquals("12", NewtonParallel.argument(args, "--frames=", "30"));
+		assertEquals("frames", NewtonParallel.argument(args, "--output=", "frames"));
+	}
+
+	@Test
+	void waitForRestoresInterruptTest() throws Exception {
+		CompletableFuture<Void> task = new CompletableFuture<>();
+		AtomicBoolean interruptedAfterWait = new AtomicBoolean();
+		Thread waiter = new Thread(() -> {
+			NewtonParallel.waitFor(task, "Task failed.");
+			interruptedAfterWait.set(Thread.currentThread().isInterrupted());
+		});
+		waiter.start();
+		waiter.interrupt();
+		Thread.sleep(50);
+		assertTrue(waiter.isAlive(), "interrupt must not stop waiting for unfinished task");
+		task.complete(null);
+		waiter.join(5000);
+
+		assertFalse(waiter.isAlive());
+		assertTrue(interruptedAfterWait.get());
+	}
+
+	@Test
+	void waitForRethrowsFailureTest() {
+		CompletableFuture<Void> task = new CompletableFuture<>();
+		task.completeExceptionally(new ArithmeticException("broken tile"));
+
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> NewtonParallel.waitFor(task, "Task failed."));
+		assertEquals("Task failed.", e.getMessage());
+		assertTrue(e.getCause() instanceof ArithmeticException);
+	}
+}
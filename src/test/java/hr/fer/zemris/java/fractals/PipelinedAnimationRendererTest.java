@@ -0,0 +1,155 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+public class PipelinedAnimationRendererTest {
+
+	private static final ComplexRootedPolynomial ROOTS = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE,
+			Complex.ONE_NEG, Complex.IM, Complex.IM_NEG);
+	private static final int WIDTH = 40;
+	private static final int HEIGHT = 30;
+	private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+	@Test
+	public void framesAreWrittenInOrderTest() {
+		List<Viewport> path = NewtonAnimation.interpolate(
+				Arrays.asList(new Viewport(-2, 2, -2, 2), new Viewport(-0.5, 0.5, -0.5, 0.5)), 12);
+		List<Integer> written = new ArrayList<>();
+		List<short[]> frames = new ArrayList<>();
+
+		new PipelinedAnimationRenderer(ROOTS, 3, 7, 3).render(path, WIDTH, HEIGHT,
+				(frameNo, data, width, height, order) -> {
+					written.add(frameNo);
+					frames.add(data.clone());
+				});
+
+		assertEquals(path.size(), written.size());
+		for (int i = 0; i < path.size(); i++) {
+			assertEquals(i, written.get(i));
+			assertArrayEquals(renderDirectly(path.get(i)), frames.get(i), "frame " + i);
+		}
+	}
+
+	@Test
+	public void framesInFlightAreBoundedTest() {
+		int framesInFlight = 2;
+		int frames = 10;
+		AtomicInteger highestStarted = new AtomicInteger(-1);
+		List<Viewport> path = new AbstractList<Viewport>() {
+			@Override
+			public Viewport get(int index) {
+				highestStarted.accumulateAndGet(index, Math::max);
+				return new Viewport(-2, 2, -2, 2);
+			}
+
+			@Override
+			public int size() {
+				return frames;
+			}
+		};
+		CountDownLatch firstWritten = new CountDownLatch(1);
+		CountDownLatch resume = new CountDownLatch(1);
+		AtomicInteger highestWhileBlocked = new AtomicInteger();
+
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			Thread observer = new Thread(() -> {
+				try {
+					firstWritten.await();
+					Thread.sleep(300);
+					highestWhileBlocked.set(highestStarted.get());
+				} catch (InterruptedException e) {
+				}
+				resume.countDown();
+			});
+			observer.start();
+			new PipelinedAnimationRenderer(ROOTS, 2, 3, framesInFlight).render(path, WIDTH, HEIGHT,
+					(frameNo, data, width, height, order) -> {
+						if (frameNo == 0) {
+							firstWritten.countDown();
+							try {
+								resume.await();
+							} catch (InterruptedException e) {
+							}
+						}
+					});
+			observer.join();
+		});
+
+		assertEquals(framesInFlight - 1, highestWhileBlocked.get());
+		assertEquals(frames - 1, highestStarted.get());
+	}
+
+	@Test
+	public void writerRuntimeExceptionStopsRenderTest() {
+		List<Viewport> path = Collections.nCopies(20, new Viewport(-2, 2, -2, 2));
+		List<Integer> written = new ArrayList<>();
+
+		IllegalStateException e = assertTimeoutPreemptively(TIMEOUT,
+				() -> assertThrows(IllegalStateException.class,
+						() -> new PipelinedAnimationRenderer(ROOTS, 2, 3, 2).render(path, WIDTH, HEIGHT,
+								(frameNo, data, width, height, order) -> {
+									if (frameNo == 3)
+										throw new IllegalStateException("disk full");
+									written.add(frameNo);
+								})));
+
+		assertEquals("disk full", e.getMessage());
+		assertEquals(Arrays.asList(0, 1, 2), written);
+	}
+
+	@Test
+	public void writerIOExceptionStopsRenderTest() {
+		List<Viewport> path = Collections.nCopies(20, new Viewport(-2, 2, -2, 2));
+
+		UncheckedIOException e = assertTimeoutPreemptively(TIMEOUT,
+				() -> assertThrows(UncheckedIOException.class,
+						() -> new PipelinedAnimationRenderer(ROOTS, 2, 3, 2).render(path, WIDTH, HEIGHT,
+								(frameNo, data, width, height, order) -> {
+									throw new IOException("disk full");
+								})));
+
+		assertEquals("disk full", e.getCause().getMessage());
+	}
+
+	@Test
+	public void workerFailureStopsRenderTest() {
+		ComplexRootedPolynomial failing = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE_NEG) {
+			@Override
+			public int indexOfClosestRootFor(double re, double im, double treshold) {
+				throw new IllegalStateException("kernel failed");
+			}
+		};
+		List<Viewport> path = Collections.nCopies(20, new Viewport(-2, 2, -2, 2));
+
+		IllegalStateException e = assertTimeoutPreemptively(TIMEOUT,
+				() -> assertThrows(IllegalStateException.class,
+						() -> new PipelinedAnimationRenderer(failing, 2, 3, 2).render(path, WIDTH, HEIGHT,
+								(frameNo, data, width, height, order) -> fail("failed frame must not be written"))));
+
+		assertEquals("kernel failed", e.getMessage());
+	}
+
+	private static short[] renderDirectly(Viewport v) {
+		short[] data = new short[WIDTH * HEIGHT];
+		NewtonParallel.calculate(v.getReMin(), v.getReMax(), v.getImMin(), v.getImMax(), WIDTH, HEIGHT, 16 * 16 * 16,
+				0, HEIGHT - 1, data, new AtomicBoolean(false), ROOTS);
+		return data;
+	}
+}
@@ -0,0 +1,46 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class RenderEnginesTest {
+
+	@Test
+	void registeredEnginesTest() {
+		List<String> names = new ArrayList<>();
+		for (IRenderEngine engine : RenderEngines.load()) {
+			names.add(engine.getName());
+		}
+
+		assertTrue(names.contains("serial"));
+		assertTrue(names.contains("thread-pool"));
+		assertTrue(names.contains("thread-pool-generated"));
+		assertTrue(names.contains("fork-join"));
+		assertEquals(names.size(), names.stream().distinct().count());
+		assertEquals("fork-join", RenderEngines.find("fork-join").getName());
+		assertThrows(IllegalArgumentException.class, () -> RenderEngines.find("gpu"));
+	}
+
+	@Test
+	void calibrationPicksMeasuredConfigurationTest() {
+		ComplexRootedPolynomial roots = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE_NEG,
+				Complex.IM, Complex.IM_NEG);
+		List<IRenderEngine> engines = new ArrayList<>();
+		engines.add(RenderEngines.find("serial"));
+		engines.add(RenderEngines.find("fork-join"));
+
+		EngineCalibrator.Configuration configuration = new EngineCalibrator(48, 32, 10_000).calibrate(roots, engines,
+				2);
+
+		assertTrue(engines.contains(configuration.getEngine()));
+		assertTrue(configuration.getTracks() >= 1 && configuration.getTracks() <= 32);
+		assertTrue(configuration.getMillis() > 0);
+	}
+}
@@ -0,0 +1,238 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class RequestSchedulerTest {
+
+	@Test
+	public void newerRequestSupersedesOlderTest() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler(1, true);
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicInteger droppedTileRuns = new AtomicInteger();
+
+		RequestScheduler.Request older = scheduler.begin(1, new AtomicBoolean());
+		older.submit(() -> {
+			started.countDown();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (!older.getCancel().get() && System.nanoTime() < deadline) {
+				Thread.onSpinWait();
+			}
+		});
+		older.submit(droppedTileRuns::incrementAndGet);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		RequestScheduler.Request newer = scheduler.begin(2, new AtomicBoolean());
+		AtomicBoolean newerCalculated = new AtomicBoolean();
+		newer.submit(() -> newerCalculated.set(true));
+
+		older.await();
+		newer.await();
+		assertTrue(older.getCancel().get());
+		assertEquals(0, droppedTileRuns.get());
+		assertTrue(newerCalculated.get());
+		assertFalse(older.deliver(() -> fail("stale result must not be delivered")));
+		assertTrue(newer.deliver(() -> {}));
+	}
+
+	@Test
+	public void lateOlderRequestIsSupersededTest() {
+		RequestScheduler scheduler = new RequestScheduler(1, true);
+		scheduler.begin(5, new AtomicBoolean());
+		RequestScheduler.Request late = scheduler.begin(4, new AtomicBoolean());
+
+		assertTrue(late.getCancel().get());
+		late.submit(() -> fail("tile of superseded request must not run"));
+		late.await();
+	}
+
+	@Test
+	public void nonPreemptiveRequestsAreIndependentTest() {
+		RequestScheduler scheduler = new RequestScheduler(2, false);
+		RequestScheduler.Request first = scheduler.begin(1, new AtomicBoolean());
+		RequestScheduler.Request second = scheduler.begin(2, new AtomicBoolean());
+		AtomicInteger calculated = new AtomicInteger();
+		first.submit(calculated::incrementAndGet);
+		second.submit(calculated::incrementAndGet);
+		first.await();
+		second.await();
+
+		assertEquals(2, calculated.get());
+		assertTrue(first.deliver(() -> {}));
+	}
+
+	@Test
+	public void externalCancelStopsRequestTest() {
+		RequestScheduler scheduler = new RequestScheduler(1, true);
+		AtomicBoolean cancel = new AtomicBoolean();
+		RequestScheduler.Request request = scheduler.begin(1, cancel);
+		request.submit(() -> {
+			cancel.set(true);
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (!request.getCancel().get() && System.nanoTime() < deadline) {
+				Thread.onSpinWait();
+			}
+		});
+		request.await();
+
+		assertTrue(request.getCancel().get());
+		assertFalse(request.deliver(() -> fail("cancelled result must not be delivered")));
+	}
+
+	@Test
+	public void failedTileFailsRequestTest() {
+		RequestScheduler scheduler = new RequestScheduler(1, false);
+		RequestScheduler.Request request = scheduler.begin(1, new AtomicBoolean());
+		CountDownLatch queued = new CountDownLatch(1);
+		request.submit(() -> {
+			await(queued);
+			throw new ArithmeticException("broken tile");
+		});
+		request.submit(() -> fail("tile of failed request must not run"));
+		queued.countDown();
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, request::await);
+		assertEquals("broken tile", e.getCause().getMessage());
+		assertFalse(request.deliver(() -> fail("result of failed request must not be delivered")));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void equalRequestNumbersDoNotSupersedeTest() {
+		RequestScheduler scheduler = new RequestScheduler(1, true);
+		RequestScheduler.Request first = scheduler.begin(0, new AtomicBoolean());
+		RequestScheduler.Request second = scheduler.begin(0, new AtomicBoolean());
+		AtomicInteger calculated = new AtomicInteger();
+		first.submit(calculated::incrementAndGet);
+		second.submit(calculated::incrementAndGet);
+		first.await();
+		second.await();
+
+		assertFalse(first.getCancel().get());
+		assertFalse(second.getCancel().get());
+		assertEquals(2, calculated.get());
+		assertTrue(first.deliver(() -> {}));
+		assertTrue(second.deliver(() -> {}));
+
+		RequestScheduler.Request newer = scheduler.begin(1, new AtomicBoolean());
+		assertFalse(first.deliver(() -> fail("superseded result must not be delivered")));
+		assertFalse(newer.getCancel().get());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void deliveryDoesNotBlockSchedulerTest() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler(1, false);
+		RequestScheduler.Request request = scheduler.begin(1, new AtomicBoolean());
+		request.await();
+		CountDownLatch delivering = new CountDownLatch(1);
+		CountDownLatch began = new CountDownLatch(1);
+		Thread observer = new Thread(() -> request.deliver(() -> {
+			delivering.countDown();
+			await(began);
+		}));
+		observer.start();
+		assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+		Thread other = new Thread(() -> {
+			scheduler.begin(2, new AtomicBoolean());
+			began.countDown();
+		});
+		other.start();
+		assertTrue(began.await(5, TimeUnit.SECONDS), "begin must not wait for delivery of other request");
+		observer.join();
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void errorInTileFailsRequestAndKeepsWorkerTest() {
+		RequestScheduler scheduler = new RequestScheduler(1, false);
+		RequestScheduler.Request request = scheduler.begin(1, new AtomicBoolean());
+		request.submit(() -> {
+			throw new AssertionError("broken tile");
+		});
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, request::await);
+		assertTrue(e.getCause() instanceof AssertionError);
+		assertFalse(request.deliver(() -> fail("result of failed request must not be delivered")));
+
+		AtomicBoolean calculated = new AtomicBoolean();
+		RequestScheduler.Request next = scheduler.begin(2, new AtomicBoolean());
+		next.submit(() -> calculated.set(true));
+		next.await();
+		assertTrue(calculated.get());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void awaitFinishesAfterShutdownTest() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler(1, false);
+		RequestScheduler.Request request = scheduler.begin(1, new AtomicBoolean());
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		request.submit(() -> {
+			running.countDown();
+			await(release);
+		});
+		request.submit(() -> fail("queued tile must not run after shutdown"));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+
+		scheduler.shutdown();
+		release.countDown();
+		request.await();
+		assertFalse(request.deliver(() -> fail("result of dropped request must not be delivered")));
+
+		RequestScheduler.Request late = scheduler.begin(2, new AtomicBoolean());
+		late.submit(() -> fail("tile submitted after shutdown must not run"));
+		late.await();
+	}
+
+	@Test
+	public void awaitRestoresInterruptTest() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler(1, false);
+		RequestScheduler.Request request = scheduler.begin(1, new AtomicBoolean());
+		CountDownLatch release = new CountDownLatch(1);
+		request.submit(() -> await(release));
+		AtomicBoolean interruptedAfterAwait = new AtomicBoolean();
+		Thread waiter = new Thread(() -> {
+			request.await();
+			interruptedAfterAwait.set(Thread.currentThread().isInterrupted());
+		});
+		waiter.start();
+		waiter.interrupt();
+		Thread.sleep(50);
+		assertTrue(waiter.isAlive(), "interrupt must not stop waiting for running tiles");
+		release.countDown();
+		waiter.join(5000);
+
+		assertFalse(waiter.isAlive());
+		assertTrue(interruptedAfterAwait.get());
+		scheduler.shutdown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void shutdownStopsWorkersTest() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler(2, false);
+		scheduler.shutdown();
+		Thread.sleep(100);
+
+		AtomicBoolean calculated = new AtomicBoolean();
+		scheduler.begin(1, new AtomicBoolean()).submit(() -> calculated.set(true));
+		Thread.sleep(100);
+		assertFalse(calculated.get());
+	}
+}
@@ -0,0 +1,68 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class RootDisksTest {
+
+	private static final int M = 16 * 16 * 16;
+	private static final int SIZE = 120;
+
+	@Test
+	void repeatedRootsHaveNoDiskTest() {
+		RootDisks disks = new RootDisks(
+				new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE, Complex.ONE_NEG, Complex.IM));
+
+		assertEquals(2, disks.size());
+		assertEquals(-1, disks.find(1, 0));
+		assertEquals(0, disks.find(-1.01, 0));
+		assertEquals(1, disks.find(0, 1.01));
+	}
+
+	@Test
+	void disksKeepClassificationAndSaveIterationsTest() {
+		ComplexRootedPolynomial[] polynomials = { KernelBenchmark.rootsOnCircle(5), KernelBenchmark.rootsOnCircle(13),
+				new ComplexRootedPolynomial(Complex.ONE, Complex.ONE, Complex.ONE, Complex.ONE_NEG, Complex.IM) };
+		for (ComplexRootedPolynomial rootedPoly : polynomials) {
+			ComplexPolynomial f = rootedPoly.toComplexPolynom();
+			INewtonKernel plain = new HornerNewtonKernel(f);
+			INewtonKernel withDisks = new HornerNewtonKernel(f, new RootDisks(rootedPoly));
+			long plainIterations = 0;
+			long diskIterations = 0;
+			double[] z = new double[2];
+			for (int y = 0; y < SIZE; y++) {
+				for (int x = 0; x < SIZE; x++) {
+					double re = Newton.mapToReal(x, SIZE, -2, 2);
+					double im = Newton.mapToImaginary(y, SIZE, -2, 2);
+					plainIterations += plain.iterate(re, im, M, z);
+					int expected = rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD);
+					diskIterations += withDisks.iterate(re, im, M, z);
+					assertEquals(expected, rootedPoly.indexOfClosestRootFor(z[0], z[1], INewtonKernel.ROOT_THRESHOLD));
+				}
+			}
+			assertTrue(diskIterations < plainIterations, diskIterations + " >= " + plainIterations);
+		}
+	}
+
+	@Test
+	void generatedKernelUsesDisksTest() {
+		ComplexRootedPolynomial rootedPoly = KernelBenchmark.rootsOnCircle(6);
+		ComplexPolynomial f = rootedPoly.toComplexPolynom();
+		RootDisks disks = new RootDisks(rootedPoly);
+		INewtonKernel horner = new HornerNewtonKernel(f, disks);
+		INewtonKernel generated = NewtonKernelGenerator.generate(f, disks);
+		double[] expected = new double[2];
+		double[] actual = new double[2];
+		for (int i = 0; i < 200; i++) {
+			double re = Math.sin(i * 0.37) * 1.8;
+			double im = Math.cos(i * 0.91) * 1.8;
+			assertEquals(horner.iterate(re, im, M, expected), generated.iterate(re, im, M, actual));
+			assertArrayEquals(expected, actual);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class RowCostModelTest {
+
+	@Test
+	public void equalPartitionWithoutCostsTest() {
+		RowCostModel model = new RowCostModel();
+		assertArrayEquals(new int[] {0, 25, 50, 75, 100}, model.partition(new Viewport(-2, 2, -2, 2), 100, 4));
+		assertArrayEquals(new int[] {0, 1, 2, 3}, model.partition(new Viewport(-2, 2, -2, 2), 3, 16));
+	}
+
+	@Test
+	public void partitionByCostTest() {
+		RowCostModel model = new RowCostModel();
+		Viewport viewport = new Viewport(-2, 2, -2, 2);
+		long[] rowCost = new long[100];
+		for (int y = 0; y < 100; y++) {
+			rowCost[y] = y < 20 ? 1000 : 10;
+		}
+		model.update(viewport, rowCost);
+
+		int[] bounds = model.partition(viewport, 100, 4);
+		assertEquals(0, bounds[0]);
+		assertEquals(100, bounds[4]);
+		assertTrue(bounds[3] <= 20, "expensive rows must be split between tracks");
+		for (int i = 0; i < 4; i++) {
+			assertTrue(bounds[i] < bounds[i + 1]);
+		}
+	}
+
+	@Test
+	public void staleCostsAreIgnoredTest() {
+		RowCostModel model = new RowCostModel();
+		long[] rowCost = new long[100];
+		rowCost[0] = 1_000_000;
+		model.update(new Viewport(-2, 2, -2, 2), rowCost);
+
+		assertArrayEquals(new int[] {0, 50, 100}, model.partition(new Viewport(10, 12, 10, 12), 100, 2));
+	}
+
+}
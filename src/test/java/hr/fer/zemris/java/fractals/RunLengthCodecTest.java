@@ -0,0 +1,107 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class RunLengthCodecTest {
+
+	@Test
+	void neighbouringRunsAreMergedTest() {
+		RunLengthEncoder encoder = new RunLengthEncoder();
+		encoder.run((short) 3, 100);
+		encoder.add((short) 3);
+		encoder.run((short) 0, 0);
+		encoder.run((short) 3, 27);
+		encoder.add((short) 1);
+
+		// 3 x 128 is value 3 and two byte count, then value 1 and count 1
+		assertArrayEquals(new byte[] { 3, (byte) 0x80, 1, 1, 1 }, encoder.toByteArray());
+
+		short[] decoded = new short[129];
+		RunLengthEncoder.decode(encoder.toByteArray(), 0, encoder.length(), decoded, 0, 129);
+		short[] expected = new short[129];
+		Arrays.fill(expected, 0, 128, (short) 3);
+		expected[128] = 1;
+		assertArrayEquals(expected, decoded);
+	}
+
+	@Test
+	void encoderCanBeReusedTest() {
+		RunLengthEncoder encoder = new RunLengthEncoder();
+		encoder.addAll(new short[] { 1, 1, 2, 2, 2, 0 }, 1, 4);
+		assertArrayEquals(new byte[] { 1, 1, 2, 3 }, encoder.toByteArray());
+
+		encoder.reset();
+		encoder.add((short) 5);
+		assertArrayEquals(new byte[] { 5, 1 }, encoder.toByteArray());
+	}
+
+	@Test
+	void malformedRunsAreRejectedTest() {
+		short[] target = new short[4];
+		assertThrows(IllegalArgumentException.class,
+				() -> RunLengthEncoder.decode(new byte[] { 1, 3 }, 0, 2, target, 0, 4));
+		assertThrows(IllegalArgumentException.class,
+				() -> RunLengthEncoder.decode(new byte[] { 1, 5 }, 0, 2, target, 0, 4));
+		assertThrows(IllegalArgumentException.class,
+				() -> RunLengthEncoder.decode(new byte[] { 1, (byte) 0x84 }, 0, 2, target, 0, 4));
+		assertThrows(IllegalArgumentException.class, () -> new RunLengthEncoder().run((short) 1, -1));
+	}
+
+	@Test
+	void goldenFramesRoundTripTest() throws IOException {
+		for (GoldenFrames.Case c : GoldenFrames.cases()) {
+			GoldenFrames.Case large = GoldenFrames.resized(c, 640, 480);
+			GoldenFrames.Frame frame = GoldenFrames.renderReference(large);
+			assertTrue(RunLengthCodec.rowsPerBlock(frame.getWidth()) < frame.getHeight(), "Frame must have many blocks.");
+
+			byte[] encoded = RunLengthCodec.encode(frame.getData(), frame.getWidth(), frame.getHeight(),
+					frame.getOrder());
+			RunLengthCodec.Frame decoded = RunLengthCodec.decode(encoded);
+
+			assertEquals(frame.getWidth(), decoded.getWidth());
+			assertEquals(frame.getHeight(), decoded.getHeight());
+			assertEquals(frame.getOrder(), decoded.getOrder());
+			assertArrayEquals(frame.getData(), decoded.getData(), large.getName());
+			assertTrue(encoded.length * 3 < frame.getData().length * Short.BYTES,
+					large.getName() + " is encoded in " + encoded.length + " B.");
+		}
+	}
+
+	@Test
+	void frameIsStreamedTest() throws IOException {
+		short[] data = new short[300 * 500];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (short) (i / 777 % 6);
+		}
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		RunLengthCodec.write(os, data, 300, 500, (short) 6);
+		os.write(42);
+
+		ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray());
+		assertArrayEquals(data, RunLengthCodec.read(is).getData());
+		assertEquals(42, is.read());
+	}
+
+	@Test
+	void corruptedFrameIsRejectedTest() {
+		byte[] encoded = RunLengthCodec.encode(new short[] { 1, 1, 2, 2, 3, 3 }, 3, 2, (short) 4);
+
+		byte[] badMagic = encoded.clone();
+		badMagic[0] = 0;
+		assertThrows(IOException.class, () -> RunLengthCodec.decode(badMagic));
+
+		byte[] badRun = encoded.clone();
+		badRun[badRun.length - 1] = 5;
+		assertThrows(IOException.class, () -> RunLengthCodec.decode(badRun));
+
+		assertThrows(IOException.class, () -> RunLengthCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+		assertThrows(IllegalArgumentException.class, () -> RunLengthCodec.encode(new short[5], 3, 2, (short) 4));
+	}
+}
@@ -0,0 +1,72 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ShortBufferPoolTest {
+
+	@Test
+	void releasedBufferIsReusedTest() {
+		ShortBufferPool pool = new ShortBufferPool(2);
+		short[] first = pool.acquire(100);
+		pool.release(first);
+
+		assertSame(first, pool.acquire(100));
+		assertEquals(1, pool.reusedCount());
+		assertEquals(1, pool.allocatedCount());
+	}
+
+	@Test
+	void buffersAreKeyedByLengthTest() {
+		ShortBufferPool pool = new ShortBufferPool(2);
+		pool.release(new short[50]);
+
+		short[] buffer = pool.acquire(100);
+		assertEquals(100, buffer.length);
+		assertEquals(0, pool.reusedCount());
+	}
+
+	@Test
+	void retainedBuffersAreBoundedTest() {
+		ShortBufferPool pool = new ShortBufferPool(1);
+		short[] first = new short[10];
+		pool.release(first);
+		pool.release(new short[10]);
+
+		assertSame(first, pool.acquire(10));
+		assertNotSame(first, pool.acquire(10));
+		assertEquals(1, pool.allocatedCount());
+	}
+
+	@Test
+	void leastRecentlyUsedLengthIsEvictedTest() {
+		ShortBufferPool pool = new ShortBufferPool(1);
+		short[] oldest = new short[1];
+		pool.release(oldest);
+		for (int length = 2; length <= 5; length++) {
+			pool.release(new short[length]);
+		}
+
+		assertNotSame(oldest, pool.acquire(1));
+	}
+
+	@Test
+	void doubleReleaseIsRefusedTest() {
+		ShortBufferPool pool = new ShortBufferPool(2);
+		short[] buffer = pool.acquire(10);
+		pool.release(buffer);
+
+		assertThrows(IllegalArgumentException.class, () -> pool.release(buffer));
+		assertSame(buffer, pool.acquire(10));
+		assertNotSame(buffer, pool.acquire(10), "buffer is pooled only once");
+
+		pool.release(buffer);
+		pool.release(new short[10]);
+	}
+
+	@Test
+	void invalidCapacityTest() {
+		assertThrows(IllegalArgumentException.class, () -> new ShortBufferPool(0));
+	}
+}
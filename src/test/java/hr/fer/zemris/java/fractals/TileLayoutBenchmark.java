@@ -0,0 +1,76 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**Compares row-major writes straight into shared result with tile-local rendering of {@link TileRenderer},
+ * for different numbers of threads and heights of jobs. Thin jobs put many job boundaries on shared cache lines.
+ * Run as plain Java program with optional maximum number of threads, it is not part of test suite.
+ * @author gorsicleo
+ *
+ */
+public class TileLayoutBenchmark {
+
+	private static final int SIZE = 1024;
+	private static final int ITERATIONS = 16 * 16 * 16;
+	private static final int REPETITIONS = 3;
+	private static final int[] ROWS_PER_JOB = { 1, 8, 32 };
+
+	public static void main(String[] args) throws Exception {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		ComplexRootedPolynomial rootedPoly = KernelBenchmark.rootsOnCircle(5);
+		INewtonKernel kernel = new HornerNewtonKernel(rootedPoly.toComplexPolynom(), new RootDisks(rootedPoly));
+
+		System.out.println("threads  rows/job  row-major[ms]  tiled[ms]  speedup");
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				for (int rows : ROWS_PER_JOB) {
+					double direct = bestTime(executor, rows, false, rootedPoly, kernel);
+					double tiled = bestTime(executor, rows, true, rootedPoly, kernel);
+					System.out.println(String.format("%7d  %8d  %13.1f  %9.1f  %7.2f", threads, rows, direct, tiled,
+							direct / tiled));
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+	private static double bestTime(ExecutorService executor, int rowsPerJob, boolean tiled,
+			ComplexRootedPolynomial rootedPoly, INewtonKernel kernel) throws InterruptedException, ExecutionException {
+		short[] data = new short[SIZE * SIZE];
+		double best = Double.MAX_VALUE;
+		for (int i = 0; i <= REPETITIONS; i++) {
+			long start = System.nanoTime();
+			List<Future<?>> jobs = new ArrayList<>();
+			for (int yMin = 0; yMin < SIZE; yMin += rowsPerJob) {
+				int from = yMin;
+				int to = Math.min(SIZE, yMin + rowsPerJob) - 1;
+				jobs.add(executor.submit(() -> {
+					if (tiled) {
+						TileRenderer.calculate(-2, 2, -2, 2, SIZE, SIZE, ITERATIONS, from, to, data, new AtomicBoolean(),
+								rootedPoly, kernel, null);
+					} else {
+						NewtonParallel.calculate(-2, 2, -2, 2, SIZE, SIZE, ITERATIONS, from, to, data,
+								new AtomicBoolean(), rootedPoly, kernel, null);
+					}
+				}));
+			}
+			for (Future<?> job : jobs) {
+				job.get();
+			}
+			if (i > 0) {
+				best = Math.min(best, (System.nanoTime() - start) / 1e6);
+			}
+		}
+		return best;
+	}
+}
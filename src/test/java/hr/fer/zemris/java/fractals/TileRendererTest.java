@@ -0,0 +1,46 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class TileRendererTest {
+
+	@Test
+	void mortonCodeVisitsEveryPixelOfTileTest() {
+		boolean[] visited = new boolean[TileRenderer.TILE_SIZE * TileRenderer.TILE_SIZE];
+		for (int code = 0; code < visited.length; code++) {
+			int x = TileRenderer.compact(code);
+			int y = TileRenderer.compact(code >>> 1);
+			assertFalse(visited[y * TileRenderer.TILE_SIZE + x]);
+			visited[y * TileRenderer.TILE_SIZE + x] = true;
+		}
+		assertEquals(3, TileRenderer.compact(0b0101));
+		assertEquals(3, TileRenderer.compact(0b1010 >>> 1));
+		assertEquals(0, TileRenderer.compact(0b1010));
+	}
+
+	@Test
+	void tiledResultMatchesRowMajorTest() {
+		ComplexRootedPolynomial rootedPoly = KernelBenchmark.rootsOnCircle(5);
+		INewtonKernel kernel = new HornerNewtonKernel(rootedPoly.toComplexPolynom());
+		int width = 77;
+		int height = 45;
+		short[] expected = new short[width * height];
+		long[] expectedCost = new long[height];
+		short[] actual = new short[width * height];
+		long[] actualCost = new long[height];
+
+		NewtonParallel.calculate(-2, 2, -1.5, 1.5, width, height, 4096, 3, 40, expected, new AtomicBoolean(),
+				rootedPoly, kernel, expectedCost);
+		TileRenderer.calculate(-2, 2, -1.5, 1.5, width, height, 4096, 3, 40, actual, new AtomicBoolean(), rootedPoly,
+				kernel, actualCost);
+
+		assertArrayEquals(expected, actual);
+		assertArrayEquals(expectedCost, actualCost);
+	}
+}
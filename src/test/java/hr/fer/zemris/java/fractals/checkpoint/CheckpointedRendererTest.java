@@ -0,0 +1,157 @@
+package hr.fer.zemris.java.fractals.checkpoint;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class CheckpointedRendererTest {
+
+	private static final ComplexRootedPolynomial ROOTS = new ComplexRootedPolynomial(Complex.ONE,
+			new Complex[] { Complex.ONE, Complex.ONE_NEG, Complex.IM, Complex.IM_NEG, new Complex(0.5, 0.5) });
+	private static final Viewport VIEWPORT = new Viewport(-2, 2, -1.5, 1.5);
+	private static final int WIDTH = 90;
+	private static final int HEIGHT = 70;
+
+	@TempDir
+	Path directory;
+
+	private static short[] direct() {
+		short[] data = new short[WIDTH * HEIGHT];
+		NewtonParallel.calculate(VIEWPORT.getReMin(), VIEWPORT.getReMax(), VIEWPORT.getImMin(), VIEWPORT.getImMax(),
+				WIDTH, HEIGHT, 16 * 16 * 16, 0, HEIGHT - 1, data, new AtomicBoolean(false), ROOTS);
+		return data;
+	}
+
+	@Test
+	void renderEqualsDirectCalculationTest() throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 0, executor);
+			assertArrayEquals(direct(), renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+			assertEquals(9, renderer.calculatedTiles());
+			assertEquals(0, renderer.resumedTiles());
+
+			RenderManifest manifest = RenderManifest.read(directory.resolve("manifest.properties"));
+			assertEquals(9, manifest.getTiles());
+			assertEquals(9, manifest.getCompletedTiles());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void interruptedRenderCalculatesOnlyMissingTilesTest() throws IOException {
+		new CheckpointedRenderer(ROOTS, directory, 32, 1000, null).render(VIEWPORT, WIDTH, HEIGHT,
+				new AtomicBoolean(false));
+		Path log = directory.resolve("tiles.log");
+		try (RandomAccessFile raf = new RandomAccessFile(log.toFile(), "rw")) {
+			raf.setLength(Files.size(log) / 2);
+		}
+
+		CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 1000, null);
+		assertArrayEquals(direct(), renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+		assertTrue(renderer.resumedTiles() > 0);
+		assertEquals(9, renderer.resumedTiles() + renderer.calculatedTiles());
+		assertTrue(renderer.calculatedTiles() < 9);
+
+		renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false));
+		assertEquals(0, renderer.calculatedTiles());
+		assertEquals(9, renderer.resumedTiles());
+	}
+
+	@Test
+	void cancelledRenderIsResumedTest() throws IOException {
+		CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 0, null);
+		assertNull(renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(true)));
+		assertEquals(0, renderer.calculatedTiles());
+
+		assertArrayEquals(direct(), renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+		assertEquals(9, renderer.calculatedTiles());
+	}
+
+	@Test
+	void checkpointOfOtherRenderIsRejectedTest() throws IOException {
+		new CheckpointedRenderer(ROOTS, directory, 32, 0, null).render(VIEWPORT, WIDTH, HEIGHT,
+				new AtomicBoolean(false));
+
+		CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 0, null);
+		assertThrows(IllegalArgumentException.class,
+				() -> renderer.render(VIEWPORT, WIDTH + 1, HEIGHT, new AtomicBoolean(false)));
+		CheckpointedRenderer other = new CheckpointedRenderer(
+				new ComplexRootedPolynomial(Complex.ONE, new Complex[] { Complex.ONE, Complex.ONE_NEG }), directory, 32,
+				0, null);
+		assertThrows(IllegalArgumentException.class,
+				() -> other.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+	}
+
+	@Test
+	void tileLogOfOtherVersionIsNotCutOffTest() throws IOException {
+		new CheckpointedRenderer(ROOTS, directory, 32, 0, null).render(VIEWPORT, WIDTH, HEIGHT,
+				new AtomicBoolean(false));
+		Path log = directory.resolve("tiles.log");
+		byte[] records = Files.readAllBytes(log);
+		byte[] unversioned = Arrays.copyOfRange(records, TileLog.FILE_HEADER_BYTES, records.length);
+		Files.write(log, unversioned);
+
+		CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 0, null);
+		assertThrows(IOException.class, () -> renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+		assertArrayEquals(unversioned, Files.readAllBytes(log));
+	}
+
+	@Test
+	void failedTileWaitsForOtherTilesTest() throws Exception {
+		AtomicInteger submitted = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		ExecutorService executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+			@Override
+			public Future<?> submit(Runnable task) {
+				boolean fails = submitted.getAndIncrement() == 0;
+				return super.submit(() -> {
+					if (fails)
+						throw new IllegalStateException("Tile failed.");
+					running.incrementAndGet();
+					try {
+						Thread.sleep(20);
+						task.run();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						running.decrementAndGet();
+					}
+				});
+			}
+		};
+		try {
+			CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 0, executor);
+			assertThrows(IllegalStateException.class,
+					() -> renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+			assertEquals(0, running.get(), "render returns only after all tiles stopped");
+		} finally {
+			executor.shutdown();
+		}
+
+		CheckpointedRenderer renderer = new CheckpointedRenderer(ROOTS, directory, 32, 0, null);
+		assertArrayEquals(direct(), renderer.render(VIEWPORT, WIDTH, HEIGHT, new AtomicBoolean(false)));
+		assertEquals(8, renderer.resumedTiles(), "tiles finished after failure are kept");
+	}
+}
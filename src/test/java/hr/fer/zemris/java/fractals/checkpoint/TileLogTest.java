@@ -0,0 +1,157 @@
+package hr.fer.zemris.java.fractals.checkpoint;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TileLogTest {
+
+	@TempDir
+	Path directory;
+
+	private static short[] tile(int length, int seed) {
+		short[] tile = new short[length];
+		for (int i = 0; i < length; i++) {
+			tile[i] = (short) ((i + seed) % 5);
+		}
+		return tile;
+	}
+
+	private static List<short[]> replay(Path file) throws IOException {
+		List<short[]> tiles = new ArrayList<>();
+		try (TileLog log = new TileLog(file)) {
+			log.replay((x, y, width, height, data) -> {
+				assertEquals(width * height, data.length);
+				tiles.add(data);
+			});
+		}
+		return tiles;
+	}
+
+	@Test
+	void appendedTilesAreReplayedTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		try (TileLog log = new TileLog(file)) {
+			assertEquals(0, log.replay((x, y, width, height, data) -> fail("Empty log has tiles.")));
+			log.append(0, 0, 4, 3, tile(12, 1));
+			log.append(4, 0, 2, 3, tile(6, 2));
+		}
+		List<Integer> positions = new ArrayList<>();
+		try (TileLog log = new TileLog(file)) {
+			assertEquals(2, log.replay((x, y, width, height, data) -> positions.add(x)));
+		}
+		assertEquals(List.of(0, 4), positions);
+
+		List<short[]> tiles = replay(file);
+		assertArrayEquals(tile(12, 1), tiles.get(0));
+		assertArrayEquals(tile(6, 2), tiles.get(1));
+	}
+
+	@Test
+	void incompleteRecordIsCutOffTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		try (TileLog log = new TileLog(file)) {
+			log.append(0, 0, 4, 4, tile(16, 1));
+			log.append(4, 0, 4, 4, tile(16, 2));
+		}
+		long size = Files.size(file);
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+			raf.setLength(size - 5);
+		}
+
+		assertEquals(1, replay(file).size());
+		assertEquals(TileLog.FILE_HEADER_BYTES + (size - TileLog.FILE_HEADER_BYTES) / 2, Files.size(file));
+
+		try (TileLog log = new TileLog(file)) {
+			log.replay((x, y, width, height, data) -> {
+			});
+			log.append(4, 0, 4, 4, tile(16, 3));
+		}
+		List<short[]> tiles = replay(file);
+		assertEquals(2, tiles.size());
+		assertArrayEquals(tile(16, 3), tiles.get(1));
+	}
+
+	@Test
+	void corruptedRecordEndsReplayTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		try (TileLog log = new TileLog(file)) {
+			log.append(0, 0, 4, 4, tile(16, 1));
+			log.append(4, 0, 4, 4, tile(16, 2));
+			log.append(8, 0, 4, 4, tile(16, 3));
+		}
+		long recordLength = (Files.size(file) - TileLog.FILE_HEADER_BYTES) / 3;
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+			raf.seek(TileLog.FILE_HEADER_BYTES + recordLength + 20);
+			raf.write(7);
+		}
+
+		assertEquals(1, replay(file).size());
+		assertEquals(TileLog.FILE_HEADER_BYTES + recordLength, Files.size(file));
+	}
+
+	@Test
+	void logOfOtherVersionIsRefusedTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		try (TileLog log = new TileLog(file)) {
+			log.append(0, 0, 4, 4, tile(16, 1));
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+			raf.seek(Integer.BYTES);
+			raf.writeInt(TileLog.VERSION + 1);
+		}
+		byte[] before = Files.readAllBytes(file);
+
+		assertThrows(IOException.class, () -> new TileLog(file));
+		assertArrayEquals(before, Files.readAllBytes(file));
+	}
+
+	@Test
+	void logWithoutHeaderIsRefusedTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		byte[] records = new byte[100];
+		Files.write(file, records);
+
+		assertThrows(IOException.class, () -> new TileLog(file));
+		assertArrayEquals(records, Files.readAllBytes(file));
+	}
+
+	@Test
+	void partialHeaderIsWrittenAgainTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		new TileLog(file).close();
+		byte[] header = Files.readAllBytes(file);
+		assertEquals(TileLog.FILE_HEADER_BYTES, header.length);
+		Files.write(file, Arrays.copyOf(header, 3));
+
+		try (TileLog log = new TileLog(file)) {
+			assertEquals(0, log.replay((x, y, width, height, data) -> fail("Empty log has tiles.")));
+			log.append(0, 0, 4, 4, tile(16, 1));
+		}
+		assertEquals(1, replay(file).size());
+	}
+
+	@Test
+	void appendBeforeReplayIsRefusedTest() throws IOException {
+		Path file = directory.resolve("tiles.log");
+		try (TileLog log = new TileLog(file)) {
+			log.append(0, 0, 4, 4, tile(16, 1));
+		}
+
+		try (TileLog log = new TileLog(file)) {
+			assertThrows(IllegalStateException.class, () -> log.append(4, 0, 4, 4, tile(16, 2)));
+		}
+		List<short[]> tiles = replay(file);
+		assertEquals(1, tiles.size());
+		assertArrayEquals(tile(16, 1), tiles.get(0));
+	}
+}
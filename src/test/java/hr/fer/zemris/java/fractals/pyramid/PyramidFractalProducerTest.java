@@ -0,0 +1,104 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.fractals.NewtonParallel;
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+class PyramidFractalProducerTest {
+
+	private static final ComplexRootedPolynomial ROOTS = new ComplexRootedPolynomial(Complex.ONE,
+			new Complex[] { Complex.ONE, Complex.ONE_NEG, Complex.IM, Complex.IM_NEG });
+	private static final Viewport AREA = new Viewport(-2, 2, -2, 2);
+
+	@TempDir
+	Path directory;
+
+	private static short[] direct(Viewport viewport, int width, int height) {
+		short[] data = new short[width * height];
+		NewtonParallel.calculate(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(), viewport.getImMax(),
+				width, height, 16 * 16 * 16, 0, height - 1, data, new AtomicBoolean(false), ROOTS);
+		return data;
+	}
+
+	private static short[] produce(PyramidFractalProducer producer, Viewport viewport, int width, int height) {
+		short[][] result = new short[1][];
+		producer.produce(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(), viewport.getImMax(), width,
+				height, 0, (data, order, requestNo) -> {
+					assertEquals(5, order);
+					result[0] = data;
+				}, new AtomicBoolean(false));
+		return result[0];
+	}
+
+	@Test
+	void frameAlignedWithTilesEqualsDirectRenderTest() throws IOException {
+		try (TilePyramid pyramid = new TilePyramid(ROOTS, AREA, 16, 4, directory.resolve("tiles"))) {
+			PyramidFractalProducer producer = new PyramidFractalProducer(pyramid, null);
+			Viewport first = pyramid.tileViewport(3, 2, 5);
+			Viewport last = pyramid.tileViewport(3, 3, 6);
+			Viewport viewport = new Viewport(first.getReMin(), last.getReMax(), last.getImMin(), first.getImMax());
+
+			assertEquals(3, producer.chooseLevel(viewport.getReMin(), viewport.getReMax(), viewport.getImMin(),
+					viewport.getImMax(), 32, 32));
+			assertArrayEquals(direct(viewport, 32, 32), produce(producer, viewport, 32, 32));
+			assertEquals(4, pyramid.storedTiles());
+		}
+	}
+
+	@Test
+	void storedTilesAreNotCalculatedAgainTest() throws IOException {
+		Path file = directory.resolve("tiles");
+		Viewport viewport = new Viewport(-1, 1, -0.5, 0.5);
+		short[] expected;
+		try (TilePyramid pyramid = new TilePyramid(ROOTS, AREA, 16, 4, file)) {
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				assertEquals(1 + 4 + 16, new TilePyramidBuilder(pyramid, executor).build(2, new AtomicBoolean(false)));
+				expected = produce(new PyramidFractalProducer(pyramid, executor), viewport, 40, 20);
+			} finally {
+				executor.shutdown();
+			}
+		}
+		try (TilePyramid pyramid = new TilePyramid(ROOTS, AREA, 16, 4, file)) {
+			int stored = pyramid.storedTiles();
+			assertEquals(0, new TilePyramidBuilder(pyramid, null).build(2, new AtomicBoolean(false)));
+			assertArrayEquals(expected, produce(new PyramidFractalProducer(pyramid, null), viewport, 40, 20));
+			assertEquals(stored, pyramid.storedTiles());
+		}
+	}
+
+	@Test
+	void framesOutsideOfPyramidAreCalculatedDirectlyTest() throws IOException {
+		try (TilePyramid pyramid = new TilePyramid(ROOTS, AREA, 16, 2, directory.resolve("tiles"))) {
+			PyramidFractalProducer producer = new PyramidFractalProducer(pyramid, null);
+			Viewport deep = new Viewport(0.5, 0.51, 0.5, 0.51);
+			assertEquals(-1, producer.chooseLevel(0.5, 0.51, 0.5, 0.51, 20, 20));
+			assertArrayEquals(direct(deep, 20, 20), produce(producer, deep, 20, 20));
+
+			Viewport outside = new Viewport(3, 7, 3, 7);
+			assertArrayEquals(direct(outside, 10, 10), produce(producer, outside, 10, 10));
+			assertEquals(0, pyramid.storedTiles());
+		}
+	}
+
+	@Test
+	void cancelledFrameIsNotDeliveredTest() throws IOException {
+		try (TilePyramid pyramid = new TilePyramid(ROOTS, AREA, 16, 2, directory.resolve("tiles"))) {
+			new PyramidFractalProducer(pyramid, null).produce(-2, 2, -2, 2, 16, 16, 0,
+					(data, order, requestNo) -> fail("Cancelled frame was delivered."), new AtomicBoolean(true));
+			assertEquals(0, pyramid.storedTiles());
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package hr.fer.zemris.java.fractals.pyramid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TileStoreTest {
+
+	@TempDir
+	Path directory;
+
+	private static short[] tile(int size, int seed) {
+		short[] tile = new short[size * size];
+		for (int i = 0; i < tile.length; i++) {
+			tile[i] = (short) ((i * 31 + seed) % 7);
+		}
+		return tile;
+	}
+
+	@Test
+	void tileNumbersOfLevelsDoNotOverlapTest() {
+		assertEquals(0, TileStore.tileNumber(0, 0, 0));
+		assertEquals(1, TileStore.tileNumber(1, 0, 0));
+		assertEquals(4, TileStore.tileNumber(1, 1, 1));
+		assertEquals(5, TileStore.tileNumber(2, 0, 0));
+		assertEquals(20, TileStore.tileNumber(2, 3, 3));
+		assertEquals(21, TileStore.tileNumber(3, 0, 0));
+	}
+
+	@Test
+	void storedTilesAreReadBackTest() throws IOException {
+		try (TileStore store = new TileStore(directory.resolve("tiles"), 8, 3, 42)) {
+			short[] read = new short[64];
+			assertFalse(store.read(2, 1, 3, read));
+			assertFalse(store.contains(2, 1, 3));
+
+			store.write(2, 1, 3, tile(8, 1));
+			store.write(0, 0, 0, tile(8, 2));
+
+			assertTrue(store.read(2, 1, 3, read));
+			assertArrayEquals(tile(8, 1), read);
+			assertTrue(store.read(0, 0, 0, read));
+			assertArrayEquals(tile(8, 2), read);
+			assertFalse(store.contains(2, 3, 1));
+			assertEquals(2, store.tileCount());
+		}
+	}
+
+	@Test
+	void tilesSpanningManySegmentsTest() throws IOException {
+		try (TileStore store = new TileStore(directory.resolve("tiles"), 4, 4, 42)) {
+			for (int y = 0; y < 16; y++) {
+				for (int x = 0; x < 16; x++) {
+					store.write(4, x, y, tile(4, y * 16 + x));
+				}
+			}
+			short[] read = new short[16];
+			for (int y = 0; y < 16; y++) {
+				for (int x = 0; x < 16; x++) {
+					assertTrue(store.read(4, x, y, read));
+					assertArrayEquals(tile(4, y * 16 + x), read);
+				}
+			}
+			assertEquals(256, store.tileCount());
+		}
+	}
+
+	@Test
+	void tileIsWrittenOnlyOnceTest() throws IOException {
+		try (TileStore store = new TileStore(directory.resolve("tiles"), 4, 1, 42)) {
+			store.write(1, 0, 1, tile(4, 1));
+			store.write(1, 0, 1, tile(4, 2));
+
+			short[] read = new short[16];
+			assertTrue(store.read(1, 0, 1, read));
+			assertArrayEquals(tile(4, 1), read);
+			assertEquals(1, store.tileCount());
+		}
+	}
+
+	@Test
+	void reopenedStoreKeepsTilesTest() throws IOException {
+		Path file = directory.resolve("tiles");
+		try (TileStore store = new TileStore(file, 8, 2, 42)) {
+			store.write(1, 1, 0, tile(8, 5));
+		}
+		try (TileStore store = new TileStore(file, 8, 2, 42)) {
+			short[] read = new short[64];
+			assertTrue(store.read(1, 1, 0, read));
+			assertArrayEquals(tile(8, 5), read);
+			assertEquals(1, store.tileCount());
+
+			store.write(1, 0, 0, tile(8, 6));
+			assertTrue(store.read(1, 0, 0, read));
+			assertArrayEquals(tile(8, 6), read);
+		}
+	}
+
+	@Test
+	void storeOfOtherPyramidIsRejectedTest() throws IOException {
+		Path file = directory.resolve("tiles");
+		new TileStore(file, 8, 2, 42).close();
+
+		assertThrows(IllegalArgumentException.class, () -> new TileStore(file, 8, 2, 43));
+		assertThrows(IllegalArgumentException.class, () -> new TileStore(file, 16, 2, 42));
+		assertThrows(IllegalArgumentException.class, () -> new TileStore(file, 8, 3, 42));
+	}
+
+	@Test
+	void invalidLayoutTest() {
+		assertThrows(IllegalArgumentException.class, () -> new TileStore(directory.resolve("a"), 0, 2, 42));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TileStore(directory.resolve("b"), 8, TileStore.MAX_LEVEL + 1, 42));
+	}
+}
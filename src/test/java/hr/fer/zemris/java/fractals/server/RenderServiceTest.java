@@ -0,0 +1,146 @@
+package hr.fer.zemris.java.fractals.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.java.fractals.Viewport;
+import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
+import hr.fer.zemris.math.Complex;
+
+public class RenderServiceTest {
+
+	private static RenderRequest request(int width) {
+		return new RenderRequest(new Complex[] {Complex.ONE, Complex.ONE_NEG}, new Viewport(-2, 2, -2, 2), width, 2);
+	}
+
+	@Test
+	public void identicalRequestsAreCoalescedTest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calculations = new AtomicInteger();
+		IFractalProducer producer = (reMin, reMax, imMin, imMax, width, height, requestNo, observer, cancel) -> {
+			calculations.incrementAndGet();
+			await(release);
+			observer.acceptResult(new short[width * height], (short) 3, requestNo);
+		};
+		RenderService service = new RenderService(roots -> producer, 1, 4);
+
+		CompletableFuture<RenderService.RenderResult> first = service.submit(request(10));
+		CompletableFuture<RenderService.RenderResult> second = service.submit(request(10));
+		release.countDown();
+
+		assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, calculations.get());
+		assertEquals(1, service.coalescedCount());
+		service.shutdown();
+	}
+
+	@Test
+	public void overloadIsRejectedTest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		IFractalProducer producer = (reMin, reMax, imMin, imMax, width, height, requestNo, observer, cancel) -> {
+			await(release);
+			observer.acceptResult(new short[width * height], (short) 3, requestNo);
+		};
+		RenderService service = new RenderService(roots -> producer, 1, 1);
+
+		CompletableFuture<RenderService.RenderResult> running = service.submit(request(10));
+		CompletableFuture<RenderService.RenderResult> queued = service.submit(request(11));
+		assertThrows(RejectedExecutionException.class, () -> service.submit(request(12)));
+		release.countDown();
+
+		assertNotNull(running.get(5, TimeUnit.SECONDS));
+		assertNotNull(queued.get(5, TimeUnit.SECONDS));
+		assertEquals(1, service.rejectedCount());
+		service.shutdown();
+	}
+
+	@Test
+	public void producersAreReusedPerPolynomialTest() throws Exception {
+		AtomicInteger created = new AtomicInteger();
+		RenderService service = new RenderService(roots -> {
+			created.incrementAndGet();
+			return (reMin, reMax, imMin, imMax, width, height, requestNo, observer, cancel) -> observer
+					.acceptResult(new short[width * height], (short) (roots.toComplexPolynom().order() + 1), requestNo);
+		}, 1, 4);
+
+		service.submit(request(10)).get(5, TimeUnit.SECONDS);
+		service.submit(request(11)).get(5, TimeUnit.SECONDS);
+		assertEquals(1, created.get());
+
+		for (int i = 0; i <= RenderService.CACHED_PRODUCERS; i++) {
+			service.submit(new RenderRequest(new Complex[] {Complex.ONE, new Complex(i, 1)}, new Viewport(-2, 2, -2, 2),
+					10, 2)).get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(2 + RenderService.CACHED_PRODUCERS, created.get());
+		service.submit(request(12)).get(5, TimeUnit.SECONDS);
+		assertEquals(3 + RenderService.CACHED_PRODUCERS, created.get(), "least recently used producer is evicted");
+		service.shutdown();
+	}
+
+	@Test
+	public void parseTest() {
+		RenderRequest request = RenderRequest
+				.parse("roots=1;-1;i;-%20i&reMin=-2&reMax=2&imMin=-1.5&imMax=1.5&width=40&height=30");
+		assertEquals(40, request.getWidth());
+		assertEquals(-1.5, request.getViewport().getImMin());
+		assertEquals(request, RenderRequest
+				.parse("width=40&height=30&roots=1;-1;i;-%20i&reMin=-2&reMax=2&imMin=-1.5&imMax=1.5"));
+		assertThrows(IllegalArgumentException.class, () -> RenderRequest.parse("roots=1;-1"));
+		assertThrows(IllegalArgumentException.class,
+				() -> RenderRequest.parse("roots=%20i2&reMin=-2&reMax=2&imMin=-1.5&imMax=1.5&width=40&height=30"));
+		assertThrows(IllegalArgumentException.class,
+				() -> RenderRequest.parse("roots=1;x&reMin=-2&reMax=2&imMin=-1.5&imMax=1.5&width=40&height=30"));
+	}
+
+	@Test
+	public void abandonedRenderIsCancelledTest() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean cancelled = new AtomicBoolean();
+		IFractalProducer producer = (reMin, reMax, imMin, imMax, width, height, requestNo, observer, cancel) -> {
+			started.countDown();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (!cancel.get() && System.nanoTime() < deadline) {
+				Thread.onSpinWait();
+			}
+			cancelled.set(cancel.get());
+		};
+		RenderService service = new RenderService(roots -> producer, 1, 1);
+
+		CompletableFuture<RenderService.RenderResult> first = service.submit(request(10));
+		CompletableFuture<RenderService.RenderResult> second = service.submit(request(10));
+		CompletableFuture<RenderService.RenderResult> queued = service.submit(request(11));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		service.abandon(request(10), first);
+		assertFalse(second.isDone(), "render is cancelled only when no client waits");
+		service.abandon(request(11), queued);
+		assertTrue(queued.isCancelled());
+		assertNotNull(service.submit(request(12)), "abandoned request frees its place in queue");
+
+		service.abandon(request(10), second);
+		assertThrows(CancellationException.class, () -> second.get(5, TimeUnit.SECONDS));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!cancelled.get() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(cancelled.get());
+		service.shutdown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package hr.fer.zemris.math;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -76,4 +77,96 @@ public class ComplexPolynomialTest {
 	}
 	
 
+	@Test
+	public void multiplyFFTTest() {
+		Complex[] factors1 = new Complex[ComplexPolynomial.FFT_THRESHOLD + 37];
+		Complex[] factors2 = new Complex[ComplexPolynomial.FFT_THRESHOLD + 5];
+		for (int i = 0; i < factors1.length; i++) {
+			factors1[i] = new Complex(Math.sin(i), Math.cos(3 * i));
+		}
+		for (int i = 0; i < factors2.length; i++) {
+			factors2[i] = new Complex(Math.cos(i) / 2, -Math.sin(i));
+		}
+		ComplexPolynomial complexPoly1 = new ComplexPolynomial(factors1);
+		ComplexPolynomial complexPoly2 = new ComplexPolynomial(factors2);
+		ComplexPolynomial product = complexPoly1.multiply(complexPoly2);
+
+		assertEquals(factors1.length + factors2.length - 2, product.order());
+		for (Complex z : new Complex[] {new Complex(1, 0), new Complex(0, -1), new Complex(0.6, 0.8)}) {
+			Complex expected = complexPoly1.apply(z).multiply(complexPoly2.apply(z));
+			assertEquals(0, product.apply(z).sub(expected).module(), 1e-9 * expected.module());
+		}
+	}
+
+
+	/**Asserts that each expected root has its own computed root within given distance*/
+	private static void assertSameRoots(Complex[] expected, Complex[] actual, double delta) {
+		assertEquals(expected.length, actual.length);
+		boolean[] used = new boolean[actual.length];
+		for (Complex root : expected) {
+			int closest = -1;
+			for (int i = 0; i < actual.length; i++) {
+				if (!used[i] && (closest < 0 || actual[i].sub(root).module() < actual[closest].sub(root).module())) {
+					closest = i;
+				}
+			}
+			assertEquals(0, actual[closest].sub(root).module(), delta, "Root " + root + " was not found.");
+			used[closest] = true;
+		}
+	}
+
+	@Test
+	public void toRootedPolynomialTest() {
+		ComplexPolynomial complexPoly = new ComplexPolynomial(new Complex(-1, 0), Complex.ZERO, Complex.ZERO,
+				Complex.ZERO, new Complex(2, 0));
+		ComplexRootedPolynomial rootedPoly = complexPoly.toRootedPolynomial();
+
+		double root = Math.pow(0.5, 0.25);
+		assertSameRoots(new Complex[] { new Complex(root, 0), new Complex(-root, 0), new Complex(0, root),
+				new Complex(0, -root) }, rootedPoly.getRoots(), 1e-14);
+		assertEquals(0, rootedPoly.apply(new Complex(0.3, 0.2)).sub(complexPoly.apply(new Complex(0.3, 0.2))).module(),
+				1e-14);
+	}
+
+	@Test
+	public void toRootedPolynomialRecoversRootsTest() {
+		Complex[] roots = new Complex[40];
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = new Complex(Math.cos(1.3 * i) * (0.2 + i % 7 * 0.3), Math.sin(0.7 * i + 1) * (0.5 + i % 3));
+		}
+		ComplexRootedPolynomial original = new ComplexRootedPolynomial(new Complex(2, -1), roots);
+
+		ComplexRootedPolynomial recovered = original.toComplexPolynom().toRootedPolynomial();
+		assertSameRoots(roots, recovered.getRoots(), 1e-6);
+	}
+
+	@Test
+	public void toRootedPolynomialSpecialCoefficientsTest() {
+		ComplexPolynomial complexPoly = new ComplexPolynomial(Complex.ZERO, Complex.ZERO, new Complex(-4, 0),
+				Complex.ZERO, Complex.ONE, Complex.ZERO, Complex.ZERO);
+		assertSameRoots(new Complex[] { Complex.ZERO, Complex.ZERO, new Complex(2, 0), new Complex(-2, 0) },
+				complexPoly.toRootedPolynomial().getRoots(), 1e-14);
+
+		complexPoly = new ComplexPolynomial(Complex.ONE, new Complex(-2, 0), Complex.ONE);
+		assertSameRoots(new Complex[] { Complex.ONE, Complex.ONE }, complexPoly.toRootedPolynomial().getRoots(), 1e-7);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new ComplexPolynomial(new Complex(3, 0), Complex.ZERO).toRootedPolynomial());
+	}
+
+	@Test
+	public void toRootedPolynomialParallelTest() {
+		int order = AberthSolver.PARALLEL_THRESHOLD + 44;
+		Complex[] factors = new Complex[order + 1];
+		Arrays.fill(factors, Complex.ZERO);
+		factors[0] = Complex.ONE_NEG;
+		factors[order] = Complex.ONE;
+
+		Complex[] expected = new Complex[order];
+		for (int k = 0; k < order; k++) {
+			expected[k] = new Complex(Math.cos(2 * Math.PI * k / order), Math.sin(2 * Math.PI * k / order));
+		}
+		assertSameRoots(expected, new ComplexPolynomial(factors).toRootedPolynomial().getRoots(), 1e-12);
+	}
+
 }
@@ -1,6 +1,7 @@
 package hr.fer.zemris.math;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +34,19 @@ public class ComplexRootedPolynomialTest {
 		assertEquals(2, rootedPoly.indexOfClosestRootFor(new Complex(4.3,4.5), 1.0));
 	}
 	
+	@Test
+	public void indexOfClosestRootForPrimitiveTest() {
+		ComplexRootedPolynomial rootedPoly = new ComplexRootedPolynomial(new Complex(1, 1), new Complex(2, 2),
+				new Complex(3, 3), new Complex(4, 4), new Complex(5, 5), new Complex(6, 6), new Complex(7, 7),
+				new Complex(8, 8), new Complex(9, 9));
+		
+		assertEquals(7, rootedPoly.indexOfClosestRootFor(10, 10, 5.0));
+		assertEquals(0, rootedPoly.indexOfClosestRootFor(0, 0, 2.83));
+		assertEquals(-1, rootedPoly.indexOfClosestRootFor(5, 6, 0.1));
+		assertEquals(2, rootedPoly.indexOfClosestRootFor(4.3, 4.5, 1.0));
+		assertEquals(-1, rootedPoly.indexOfClosestRootFor(Double.NaN, 0, 1.0));
+	}
+	
 	@Test
 	public void applyTest() {
 		ComplexRootedPolynomial rootedPoly = new ComplexRootedPolynomial(new Complex(1, 1), new Complex(2, 2),
@@ -53,4 +67,65 @@ public class ComplexRootedPolynomialTest {
 		assertEquals(result, rootedPoly.toComplexPolynom().toString());
 	}
 
+	@Test
+	public void toComplexPolynomBelowFFTThresholdIsSequentialTest() {
+		int n = ComplexPolynomial.FFT_THRESHOLD - 1;
+		Complex[] roots = new Complex[n];
+		for (int i = 0; i < n; i++) {
+			double radius = 1 + 0.1 * Math.sin(3 * i);
+			double angle = 2 * Math.PI * i / n + 0.1;
+			roots[i] = new Complex(radius * Math.cos(angle), radius * Math.sin(angle));
+		}
+		Complex constant = new Complex(0.5, -0.25);
+
+		// coefficients as they were calculated before product tree, factor by factor from left to right
+		Complex[] expected = { constant };
+		for (Complex root : roots) {
+			Complex[] factor = { root.negate(), Complex.ONE };
+			Complex[] product = new Complex[expected.length + 1];
+			Arrays.fill(product, Complex.ZERO);
+			for (int i = 0; i < expected.length; i++) {
+				for (int j = 0; j < factor.length; j++) {
+					product[i + j] = product[i + j].add(expected[i].multiply(factor[j]));
+				}
+			}
+			expected = product;
+		}
+
+		List<Complex> actual = new ComplexRootedPolynomial(constant, roots).toComplexPolynom().getCoefficients();
+		assertEquals(expected.length, actual.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getReal(), actual.get(i).getReal(), 0, "real part of z^" + i);
+			assertEquals(expected[i].getImaginary(), actual.get(i).getImaginary(), 0, "imaginary part of z^" + i);
+		}
+	}
+
+	@Test
+	public void toComplexPolynomLargeTest() {
+		int n = ComplexRootedPolynomial.PARALLEL_THRESHOLD + 100;
+		Complex[] roots = new Complex[n];
+		for (int i = 0; i < n; i++) {
+			roots[i] = new Complex(Math.cos(2 * Math.PI * i / n), Math.sin(2 * Math.PI * i / n));
+		}
+		ComplexPolynomial poly = new ComplexRootedPolynomial(Complex.ONE, roots).toComplexPolynom();
+
+		assertEquals(n, poly.order());
+		for (Complex z : new Complex[] {new Complex(0, 0), new Complex(0.5, 0.5), new Complex(-0.9, 0.1)}) {
+			Complex expected = z.power(n).sub(Complex.ONE);
+			assertEquals(0, poly.apply(z).sub(expected).module(), 1e-6);
+		}
+	}
+
+	@Test
+	public void convergenceRadiiTest() {
+		ComplexRootedPolynomial rootedPoly = new ComplexRootedPolynomial(Complex.ONE, new Complex(0, 0),
+				new Complex(3, 0), new Complex(3, 4), new Complex(3, 4));
+		double[] radii = rootedPoly.convergenceRadii();
+
+		assertEquals(3.0 / 7, radii[0], 1e-15);
+		assertEquals(3.0 / 7, radii[1], 1e-15);
+		assertEquals(0, radii[2]);
+		assertEquals(0, radii[3]);
+	}
+
 }